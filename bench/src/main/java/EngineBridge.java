@@ -0,0 +1,92 @@
+import java.util.SplittableRandom;
+
+import mines.bench.Engine;
+
+/**
+ * <h1>EngineBridge - Gives the benchmarks in mines.bench access to a MinesEngine</h1>
+ *
+ * <p>Every method forwards to the engine as is, including the package-private stages of a deal and the victory check,
+ * which only a class in the unnamed package can call.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public final class EngineBridge implements Engine {
+
+	/* The engine */
+	private final MinesEngine engine;
+
+	/**
+	 * <h3>Constructs an EngineBridge</h3>
+	 *
+	 * @param size : The board as {@code <rows>x<cols>x<mines>}
+	 *
+	 * @throws IllegalArgumentException {@code if size does not describe a valid board}
+	 */
+	public EngineBridge(String size) {
+		Difficulty difficulty = Difficulty.parse(size);
+		engine = new MinesEngine(difficulty.getRows(), difficulty.getCols(), difficulty.getMines(), 0);
+	}
+
+	@Override
+	public int getRows() {
+		return engine.getRows();
+	}
+
+	@Override
+	public int getCols() {
+		return engine.getCols();
+	}
+
+	@Override
+	public void reset(long seed) {
+		engine.reset(seed);
+	}
+
+	@Override
+	public void placeMines(long seed) {
+		engine.newRandomMines(engine.getTotalMines(), new SplittableRandom(seed));
+	}
+
+	@Override
+	public void countNeighborMines() {
+		engine.countAllNeighborMines();
+	}
+
+	@Override
+	public int checkForVictory() {
+		engine.checkForVictory();
+		return engine.getState().ordinal();
+	}
+
+	@Override
+	public int reveal(int row, int col) {
+		return engine.reveal(row, col).ordinal();
+	}
+
+	@Override
+	public boolean isMined(int row, int col) {
+		return engine.isMined(row, col);
+	}
+
+	@Override
+	public boolean isRevealed(int row, int col) {
+		return engine.isRevealed(row, col);
+	}
+
+	@Override
+	public int getNeighborMines(int row, int col) {
+		return engine.getNeighborMines(row, col);
+	}
+
+	@Override
+	public int getChangedCount() {
+		return engine.getChangedCount();
+	}
+
+	@Override
+	public int getSafeCellsRemaining() {
+		return engine.getSafeCellsRemaining();
+	}
+
+}
@@ -0,0 +1,121 @@
+package mines.bench;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * <h1>Engine - The operations of MinesEngine the benchmarks measure</h1>
+ *
+ * <p>The game classes live in the unnamed package, which JMH benchmarks cannot be in and no named package can import.
+ * {@code EngineBridge}, in the unnamed package next to them, implements this interface over a {@code MinesEngine}, and
+ * {@link #of(String)} loads it by name. It is the only implementation ever loaded, so every call through the interface is
+ * monomorphic and inlined.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public interface Engine {
+
+	/**
+	 * <h3>Creates an engine for a board size</h3>
+	 *
+	 * @param size : The board as {@code <rows>x<cols>x<mines>}
+	 *
+	 * @return The engine, dealt from seed 0
+	 *
+	 * @throws IllegalArgumentException {@code if size does not describe a valid board}
+	 * @throws IllegalStateException {@code if the bridge to the game classes cannot be loaded}
+	 */
+	static Engine of(String size) {
+		try {
+			return (Engine) Class.forName("EngineBridge").getConstructor(String.class).newInstance(size);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof IllegalArgumentException) {
+				throw (IllegalArgumentException) e.getCause();
+			}
+			throw new IllegalStateException("Engine - of() : the bridge could not be created", e.getCause());
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Engine - of() : the bridge could not be loaded", e);
+		}
+	}
+
+	/**
+	 * @return The number of rows
+	 */
+	int getRows();
+
+	/**
+	 * @return The number of columns
+	 */
+	int getCols();
+
+	/**
+	 * <h3>Deals a new board from a seed</h3>
+	 *
+	 * @param seed : The seed
+	 */
+	void reset(long seed);
+
+	/**
+	 * <h3>Places the mines of a new board from a seed, the first stage of a deal [the numbers are left stale]</h3>
+	 *
+	 * @param seed : The seed
+	 */
+	void placeMines(long seed);
+
+	/**
+	 * <h3>Counts every cell's neighboring mines, the second stage of a deal</h3>
+	 */
+	void countNeighborMines();
+
+	/**
+	 * <h3>Runs the victory check every reveal ends with</h3>
+	 *
+	 * @return The ordinal of the state of the game after the check
+	 */
+	int checkForVictory();
+
+	/**
+	 * <h3>Reveals a cell</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return The ordinal of the state of the game after the move
+	 */
+	int reveal(int row, int col);
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if the cell is a mine
+	 */
+	boolean isMined(int row, int col);
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if the cell is revealed
+	 */
+	boolean isRevealed(int row, int col);
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return The number of mines around the cell
+	 */
+	int getNeighborMines(int row, int col);
+
+	/**
+	 * @return The number of cells changed by the last move
+	 */
+	int getChangedCount();
+
+	/**
+	 * @return The number of safe cells not yet revealed
+	 */
+	int getSafeCellsRemaining();
+
+}
@@ -0,0 +1,288 @@
+package mines.bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <h1>LifecycleBenchmark - JMH benchmarks of every stage of a game's lifecycle</h1>
+ *
+ * <p>Measures the four presets and large boards at Expert's mine density:</p>
+ *
+ * <pre>
+ *  deal            reset(seed): clearing the board, placing the mines and counting every cell's neighbors
+ *  placeMines      the first stage of a deal alone: clearing the mines and placing new ones
+ *  countNeighbors  the second stage of a deal alone: counting every cell's neighboring mines
+ *  checkForVictory the check every reveal ends with, alone
+ *  cascade         one reveal of a zero cell on a freshly dealt board: a single flood fill cascade and the victory check
+ *  clear           revealing every safe cell in index order until the game is won: one reveal and victory check per move
+ * </pre>
+ *
+ * <p>Cascade and clear need freshly dealt boards, which are dealt in an invocation level setup, so they are left out of
+ * the time. A single cascade reveals a few dozen cells whatever the size of the board, too little to time on its own
+ * against the cost of an invocation, so {@link Cascades} sets up {@link Cascades#COUNT} of them per invocation. Boards
+ * are dealt from successive seeds, so every run measures the same sequence of boards, and the result of every operation
+ * is returned to JMH so none of the work can be discarded.</p>
+ *
+ * <p>Run with {@code java -jar target/benchmarks.jar -prof gc} for the bytes allocated per operation, and narrow the
+ * boards with e.g. {@code -p size=24x48x180}. The largest board needs roughly 1 GB of heap, which every fork is given.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class LifecycleBenchmark {
+
+	/* Ordinal of the state of a game in progress */
+	private static final int RUNNING = 0;
+
+	/**
+	 * <h3>The board every benchmark plays on, created once per trial</h3>
+	 */
+	@State(Scope.Thread)
+	public static class Board {
+
+		/* The board, as <rows>x<cols>x<mines>: the four presets, then large boards at Expert's density [180 / 1152] */
+		@Param({
+			"8x8x10",
+			"16x16x40",
+			"16x24x60",
+			"24x48x180",
+			"100x100x1562",
+			"1000x1000x156250",
+			"3162x3162x1562225",
+			"10000x10000x15625000"
+		})
+		public String size;
+
+		/* The engine */
+		Engine engine;
+
+		/* Seed of the next board dealt */
+		long seed;
+
+		/**
+		 * <h3>Creates the engine</h3>
+		 */
+		@Setup(Level.Trial)
+		public void create() {
+			engine = Engine.of(size);
+			seed = 0;
+		}
+	}
+
+	/**
+	 * <h3>A board freshly dealt before every operation [not timed]</h3>
+	 */
+	@State(Scope.Thread)
+	public static class FreshBoard {
+
+		/* The engine */
+		Engine engine;
+
+		/**
+		 * <h3>Deals the next board</h3>
+		 *
+		 * @param board : The board to deal on
+		 */
+		@Setup(Level.Invocation)
+		public void deal(Board board) {
+			engine = board.engine;
+			engine.reset(board.seed++);
+		}
+	}
+
+	/**
+	 * <h3>The starting cells of {@link #COUNT} cascades over separate empty regions, on boards redealt before every
+	 * invocation [not timed]</h3>
+	 *
+	 * <p>Large boards hold that many separate empty regions, small ones take as many boards as they need. Each board is
+	 * redealt from the same seed before every invocation, so every invocation runs the same cascades.</p>
+	 */
+	@State(Scope.Thread)
+	public static class Cascades {
+
+		/* Number of cascades run per invocation */
+		static final int COUNT = 64;
+
+		/* The engines, and the seed each one is redealt from */
+		Engine[] engines;
+		long[] seeds;
+
+		/* The engine and the cell every cascade starts from */
+		final int[] engineOf = new int[COUNT];
+		final int[] rows = new int[COUNT];
+		final int[] cols = new int[COUNT];
+
+		/**
+		 * <h3>Finds the starting cells, dealing boards until there are enough of them</h3>
+		 *
+		 * <p>Every cell is found by revealing it, which marks its whole region so it is not found again. A board is left
+		 * once the game is won, since any later reveal on it would not cascade.</p>
+		 *
+		 * @param board : The board to start from, whose engine is reused as the first one
+		 */
+		@Setup(Level.Trial)
+		public void find(Board board) {
+			ArrayList<Engine> found = new ArrayList<>();
+			ArrayList<Long> foundSeeds = new ArrayList<>();
+			Engine engine = board.engine;
+			int count = 0;
+			for (long seed = 0;count < COUNT;++seed) {
+
+				/* Deal the next board */
+				engine.reset(seed);
+				int first = count;
+
+				/* Reveal the first zero cell of every region until there are enough or the game is won */
+				int state = RUNNING;
+				for (int row = 0;row < engine.getRows() && count < COUNT && state == RUNNING;++row) {
+					for (int col = 0;col < engine.getCols() && count < COUNT && state == RUNNING;++col) {
+						if (!engine.isMined(row, col) && !engine.isRevealed(row, col) && engine.getNeighborMines(row, col) == 0) {
+							engineOf[count] = found.size();
+							rows[count] = row;
+							cols[count] = col;
+							++count;
+							state = engine.reveal(row, col);
+						}
+					}
+				}
+
+				/* Keep the board if it had any empty region, and deal the next one on a new engine */
+				if (count > first) {
+					found.add(engine);
+					foundSeeds.add(seed);
+					if (count < COUNT) {
+						engine = Engine.of(board.size);
+					}
+				}
+			}
+			engines = found.toArray(new Engine[0]);
+			seeds = new long[engines.length];
+			for (int i = 0;i < seeds.length;++i) {
+				seeds[i] = foundSeeds.get(i);
+			}
+		}
+
+		/**
+		 * <h3>Redeals every board, hiding the regions again</h3>
+		 */
+		@Setup(Level.Invocation)
+		public void deal() {
+			for (int i = 0;i < engines.length;++i) {
+				engines[i].reset(seeds[i]);
+			}
+		}
+	}
+
+	/**
+	 * <h3>Deals a board</h3>
+	 *
+	 * @param board : The board to deal on
+	 *
+	 * @return The number of safe cells, so the deal cannot be discarded
+	 */
+	@Benchmark
+	public int deal(Board board) {
+		board.engine.reset(board.seed++);
+		return board.engine.getSafeCellsRemaining();
+	}
+
+	/**
+	 * <h3>Places the mines of a board, without counting the numbers</h3>
+	 *
+	 * @param board : The board to place the mines on
+	 *
+	 * @return Whether the first cell is mined, so the placement cannot be discarded
+	 */
+	@Benchmark
+	public boolean placeMines(Board board) {
+		board.engine.placeMines(board.seed++);
+		return board.engine.isMined(0, 0);
+	}
+
+	/**
+	 * <h3>Counts the neighboring mines of every cell of a board</h3>
+	 *
+	 * @param board : The board to count on
+	 *
+	 * @return The number of the first cell, so the count cannot be discarded
+	 */
+	@Benchmark
+	public int countNeighbors(Board board) {
+		board.engine.countNeighborMines();
+		return board.engine.getNeighborMines(0, 0);
+	}
+
+	/**
+	 * <h3>Runs the victory check on a game in progress</h3>
+	 *
+	 * @param board : The board to check
+	 *
+	 * @return The ordinal of the state of the game [running]
+	 */
+	@Benchmark
+	public int checkForVictory(Board board) {
+		return board.engine.checkForVictory();
+	}
+
+	/**
+	 * <h3>Reveals {@link Cascades#COUNT} zero cells, each starting a cascade over a separate region</h3>
+	 *
+	 * @param cascades : The freshly dealt boards and the cells to reveal
+	 *
+	 * @return The total number of cells the cascades revealed
+	 */
+	@Benchmark
+	@OperationsPerInvocation(Cascades.COUNT)
+	public int cascade(Cascades cascades) {
+		int revealed = 0;
+		for (int i = 0;i < Cascades.COUNT;++i) {
+			Engine engine = cascades.engines[cascades.engineOf[i]];
+			engine.reveal(cascades.rows[i], cascades.cols[i]);
+			revealed += engine.getChangedCount();
+		}
+		return revealed;
+	}
+
+	/**
+	 * <h3>Reveals every safe cell of a freshly dealt board in index order</h3>
+	 *
+	 * @param board : The freshly dealt board
+	 *
+	 * @return The ordinal of the state of the game at the end [won]
+	 */
+	@Benchmark
+	public int clear(FreshBoard board) {
+		Engine engine = board.engine;
+		int rows = engine.getRows();
+		int cols = engine.getCols();
+		int state = 0;
+		for (int row = 0;row < rows;++row) {
+			for (int col = 0;col < cols;++col) {
+				if (!engine.isMined(row, col)) {
+					state = engine.reveal(row, col);
+				}
+			}
+		}
+		return state;
+	}
+
+}
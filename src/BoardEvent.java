@@ -0,0 +1,216 @@
+/**
+ * <h1>BoardEvent - Everything one move changed on a board</h1>
+ *
+ * <p>Published by {@link BoardPublisher} once per move, however many cells the move changed, so a cascade that reveals
+ * 10,000 cells is one event. Each changed cell is listed with the value the player now sees, in the layout of
+ * {@link MinesSave}: the neighbor count [9 for a mine] and bit 5 once revealed, bit 4 while flagged, and 0 otherwise. A
+ * flag toggle is a change of bit 4, a reveal sets bit 5, and a move that ends the game is a {@link Type#WON} or
+ * {@link Type#LOST} event. A new board is a {@link Type#RESTART} event carrying no cells, after which every cell is
+ * hidden again.</p>
+ *
+ * <p>A subscriber that fell behind and missed events is sent one full board event instead [{@link #isFullBoard()}],
+ * which lists every cell of the board with its value, including the hidden ones, and replaces whatever the subscriber
+ * knew about the board.</p>
+ *
+ * <p>Events are immutable, so they can be handed to subscribers on any thread.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public final class BoardEvent {
+
+	/**
+	 * <h3>The kinds of event</h3>
+	 */
+	public enum Type {
+
+		/** A new board was dealt */
+		RESTART,
+
+		/** A move changed cells and the game goes on */
+		CHANGED,
+
+		/** A move changed cells and won the game */
+		WON,
+
+		/** A move changed cells and lost the game */
+		LOST
+	}
+
+	/* The cells of an event that changed none */
+	private static final int[] NO_CELLS = new int[0];
+	private static final byte[] NO_VALUES = new byte[0];
+
+	/* The kind of event */
+	private final Type type;
+
+	/* The changed cells and their values, in the order the move changed them */
+	private final int[] cells;
+	private final byte[] values;
+
+	/* Whether the cells are every cell of the board rather than only the changed ones */
+	private final boolean fullBoard;
+
+	/* The number of flags on the board after the move */
+	private final int totalFlags;
+
+	/* The board the event happened on [its board ID is only built when asked for] */
+	private final int rows;
+	private final int cols;
+	private final int mines;
+	private final long seed;
+
+	/**
+	 * <h3>Constructs a BoardEvent</h3>
+	 *
+	 * @param type      : The kind of event
+	 * @param cells     : The changed cells [owned by the event from now on]
+	 * @param values    : Their values [owned by the event from now on]
+	 * @param fullBoard : Whether the cells are every cell of the board
+	 * @param engine    : The engine holding the board after the move
+	 */
+	private BoardEvent(Type type, int[] cells, byte[] values, boolean fullBoard, MinesEngine engine) {
+		this.type = type;
+		this.cells = cells;
+		this.values = values;
+		this.fullBoard = fullBoard;
+		this.totalFlags = engine.getTotalFlags();
+		this.rows = engine.getRows();
+		this.cols = engine.getCols();
+		this.mines = engine.getTotalMines();
+		this.seed = engine.getSeed();
+	}
+
+	/**
+	 * <h3>Describes the last move made on an engine</h3>
+	 *
+	 * @param engine : The engine
+	 *
+	 * @return The event
+	 */
+	static BoardEvent moved(MinesEngine engine) {
+		int count = engine.getChangedCount();
+		int[] cells = new int[count];
+		byte[] values = new byte[count];
+		for (int i = 0;i < count;++i) {
+			cells[i] = engine.getChangedCell(i);
+			values[i] = (byte) engine.visibleCell(cells[i]);
+		}
+		return new BoardEvent(moveType(engine), cells, values, false, engine);
+	}
+
+	/**
+	 * <h3>Describes the whole board of an engine after its last move, for a subscriber that missed events</h3>
+	 *
+	 * @param engine : The engine
+	 *
+	 * @return The event
+	 */
+	static BoardEvent fullBoard(MinesEngine engine) {
+		int count = engine.getRows() * engine.getCols();
+		int[] cells = new int[count];
+		byte[] values = new byte[count];
+		for (int cell = 0;cell < count;++cell) {
+			cells[cell] = cell;
+			values[cell] = (byte) engine.visibleCell(cell);
+		}
+		return new BoardEvent(moveType(engine), cells, values, true, engine);
+	}
+
+	/**
+	 * <h3>Describes a new board on an engine</h3>
+	 *
+	 * @param engine : The engine
+	 *
+	 * @return The event
+	 */
+	static BoardEvent restarted(MinesEngine engine) {
+		return new BoardEvent(Type.RESTART, NO_CELLS, NO_VALUES, false, engine);
+	}
+
+	/**
+	 * @param engine : The engine a move was just made on
+	 *
+	 * @return The kind of event the move is
+	 */
+	private static Type moveType(MinesEngine engine) {
+		switch (engine.getState()) {
+			case WON:	return Type.WON;
+			case LOST:	return Type.LOST;
+			default:	return Type.CHANGED;
+		}
+	}
+
+	/**
+	 * @return The kind of event
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return {@code true} if the move ended the game
+	 */
+	public boolean isGameOver() {
+		return type == Type.WON || type == Type.LOST;
+	}
+
+	/**
+	 * @return {@code true} if the event lists every cell of the board rather than only the cells the move changed
+	 */
+	public boolean isFullBoard() {
+		return fullBoard;
+	}
+
+	/**
+	 * @return The number of cells the move changed [every cell of the board for a full board event]
+	 */
+	public int getCellCount() {
+		return cells.length;
+	}
+
+	/**
+	 * @param i : The position of the change, from {@code 0} to {@code getCellCount() - 1}
+	 *
+	 * @return The index {@code row * cols + col} of the i-th changed cell
+	 *
+	 * @throws IndexOutOfBoundsException {@code if i < 0 || i >= getCellCount()}
+	 */
+	public int getCell(int i) {
+		return cells[i];
+	}
+
+	/**
+	 * @param i : The position of the change, from {@code 0} to {@code getCellCount() - 1}
+	 *
+	 * @return The value of the i-th changed cell, as the player now sees it
+	 *
+	 * @throws IndexOutOfBoundsException {@code if i < 0 || i >= getCellCount()}
+	 */
+	public int getValue(int i) {
+		return values[i];
+	}
+
+	/**
+	 * @return The number of flags on the board after the move
+	 */
+	public int getTotalFlags() {
+		return totalFlags;
+	}
+
+	/**
+	 * @return The board ID of the board the event happened on
+	 */
+	public String getBoardId() {
+		return MinesEngine.boardId(rows, cols, mines, seed);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return type + (fullBoard ? " full board " : " ") + getBoardId() + " [" + cells.length + " cells, " + totalFlags + " flags]";
+	}
+
+}
@@ -0,0 +1,346 @@
+import javax.swing.JPanel;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.util.concurrent.Flow;
+
+/**
+ * <h3>BoardPanel - A single component that paints every cell of a MinesEngine</h3>
+ *
+ * <p>Instead of holding one component per cell, this panel reads the engine's state arrays and draws the tile for each
+ * cell in {@link #paintComponent(Graphics)}. Only the tiles that intersect the clip bounds are drawn, so the cost of a
+ * repaint depends on the area being repainted, not on the size of the board.</p>
+ *
+ * <p>The panel is {@link Scrollable}, so boards larger than the screen can be placed in a {@link javax.swing.JScrollPane}.
+ * Its preferred viewport is the whole board capped to the usable screen area, and scrolling moves one tile at a time.
+ * Since only the tiles inside the clip are drawn, frame time depends on the viewport, not on the board.</p>
+ *
+ * <p>The panel subscribes to the game's {@link BoardEvent}s and repaints only what each one changed: the cells of a move
+ * are merged into a single dirty rectangle, so a cascade that reveals thousands of cells still queues only one repaint,
+ * and a new board or the end of a game repaints the whole panel.</p>
+ *
+ * <p>A hint can be shown on a single cell with {@link #showHint(int, boolean)}, outlined green for a safe cell or red
+ * for a mine, until the next call to {@link #clearHint()}.</p>
+ *
+ * <p>The paint that displays a move records its own time and the time from the mouse press to its end in
+ * {@link MinesMetrics}. Running with {@code -Dmines.latency=true} also prints them for every move.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class BoardPanel extends JPanel implements Scrollable, Flow.Subscriber<BoardEvent> {
+
+	/* Icon size in pixels */
+	public static final int ICON_SIZE_PX = Sprites.TILE_SIZE_PX;
+
+	/* Space left around the viewport for the window decorations and scroll bars, in pixels */
+	private static final int SCREEN_MARGIN_PX = 64;
+
+	/* Width of the hint outline in pixels */
+	private static final int HINT_WIDTH_PX = 2;
+
+	/* Where paint timings are recorded */
+	private static final MinesMetrics METRICS = MinesMetrics.get();
+
+	/* Whether input-to-frame latency should be printed */
+	private static final boolean LOG_LATENCY = Boolean.getBoolean("mines.latency");
+
+	/* The game state this panel paints */
+	private final MinesEngine engine;
+
+	/* Timing of the move waiting to be painted [inputNanos is 0 when no move is waiting] */
+	private long inputNanos = 0;
+	private long handlerNanos;
+	private int changedCells;
+
+	/* The subscription to the game's events [null until subscribed] */
+	private Flow.Subscription subscription;
+
+	/* The cell outlined as a hint, and whether it is safe [hintCell is -1 when there is no hint] */
+	private int hintCell = -1;
+	private boolean hintSafe;
+
+	/**
+	 * <h3>Constructs a BoardPanel that paints the provided engine</h3>
+	 *
+	 * @param engine : The engine to paint
+	 */
+	public BoardPanel(MinesEngine engine) {
+		this.engine = engine;
+		setPreferredSize(new Dimension(engine.getCols() * ICON_SIZE_PX, engine.getRows() * ICON_SIZE_PX));
+		setOpaque(true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void paintComponent(Graphics g) {
+		long tPaint = System.nanoTime();
+
+		/* Determine the range of cells that intersect the clip bounds */
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		int rowMin = Math.max(clip.y / ICON_SIZE_PX, 0);
+		int rowMax = Math.min((clip.y + clip.height - 1) / ICON_SIZE_PX, engine.getRows() - 1);
+		int colMin = Math.max(clip.x / ICON_SIZE_PX, 0);
+		int colMax = Math.min((clip.x + clip.width - 1) / ICON_SIZE_PX, engine.getCols() - 1);
+
+		/* For every cell within the clip bounds, draw its tile */
+		for (int row = rowMin;row <= rowMax;++row) {
+			for (int col = colMin;col <= colMax;++col) {
+				g.drawImage(tileFor(row, col), col * ICON_SIZE_PX, row * ICON_SIZE_PX, null);
+			}
+		}
+
+		/* Outline the hinted cell */
+		if (hintCell >= 0) {
+			g.setColor(hintSafe ? Color.GREEN : Color.RED);
+			Rectangle hint = hintBounds();
+			for (int i = 0;i < HINT_WIDTH_PX;++i) {
+				g.drawRect(hint.x + i, hint.y + i, hint.width - 2 * i - 1, hint.height - 2 * i - 1);
+			}
+		}
+
+		/* If a move was waiting for this frame, record how long it took to reach the screen */
+		if (inputNanos != 0) {
+			long now = System.nanoTime();
+			long latencyNanos = now - inputNanos;
+			METRICS.painted(now - tPaint, latencyNanos);
+			if (LOG_LATENCY) {
+				System.out.printf("Mines - move latency: %.3f ms [input handler %.3f ms, paint %.3f ms, %d cells changed, repainted %dx%d px]%n",
+						latencyNanos / 1e6, handlerNanos / 1e6, (now - tPaint) / 1e6, changedCells, clip.width, clip.height);
+			}
+			inputNanos = 0;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		this.subscription = subscription;
+		subscription.request(1);
+	}
+
+	/**
+	 * <h3>Queues a single repaint covering every cell changed by a move</h3>
+	 *
+	 * <p>The changed cells are merged into their bounding rectangle. On a new board, or if the move ended the game, every
+	 * tile changes and the whole panel is repainted instead.</p>
+	 *
+	 * @param event : The event
+	 */
+	@Override
+	public void onNext(BoardEvent event) {
+		repaintEvent(event);
+		subscription.request(1);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onError(Throwable throwable) {
+		System.err.println("BoardPanel - onError() : the game's events stopped [" + throwable + "]");
+		repaint();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onComplete() {
+	}
+
+	/**
+	 * <h3>Queues the repaint an event calls for</h3>
+	 *
+	 * @param event : The event
+	 */
+	private void repaintEvent(BoardEvent event) {
+
+		/* A new board or the end of the game changes every tile */
+		if (event.getType() != BoardEvent.Type.CHANGED) {
+			repaint();
+			return;
+		}
+
+		/* Merge the changed cells into their bounding rectangle */
+		int count = event.getCellCount();
+		int cols = engine.getCols();
+		int rowMin = Integer.MAX_VALUE;
+		int rowMax = Integer.MIN_VALUE;
+		int colMin = Integer.MAX_VALUE;
+		int colMax = Integer.MIN_VALUE;
+		for (int i = 0;i < count;++i) {
+			int cell = event.getCell(i);
+			int row = cell / cols;
+			int col = cell - row * cols;
+			rowMin = Math.min(rowMin, row);
+			rowMax = Math.max(rowMax, row);
+			colMin = Math.min(colMin, col);
+			colMax = Math.max(colMax, col);
+		}
+
+		/* Queue one repaint of the merged rectangle */
+		repaint(colMin * ICON_SIZE_PX, rowMin * ICON_SIZE_PX, (colMax - colMin + 1) * ICON_SIZE_PX, (rowMax - rowMin + 1) * ICON_SIZE_PX);
+	}
+
+	/**
+	 * <h3>Outlines a cell as a hint and scrolls it into view</h3>
+	 *
+	 * @param cell : The index {@code row * cols + col} of the cell
+	 * @param safe : {@code true} if the cell is safe, {@code false} if it is a mine
+	 */
+	public void showHint(int cell, boolean safe) {
+		clearHint();
+		hintCell = cell;
+		hintSafe = safe;
+		Rectangle hint = hintBounds();
+		scrollRectToVisible(hint);
+		repaint(hint);
+	}
+
+	/**
+	 * <h3>Removes the hint outline, if one is shown</h3>
+	 */
+	public void clearHint() {
+		if (hintCell >= 0) {
+			repaint(hintBounds());
+			hintCell = -1;
+		}
+	}
+
+	/**
+	 * <h3>Marks a move as waiting to be painted, for latency reporting</h3>
+	 *
+	 * <p>Does nothing if the move changed no cell.</p>
+	 *
+	 * @param inputNanos   : The {@link System#nanoTime()} at which the input arrived
+	 * @param handlerNanos : The time spent handling the input [applying the move and queueing its repaint]
+	 */
+	public void markMove(long inputNanos, long handlerNanos) {
+
+		/* A move that changed nothing queues no paint, so it has no latency to report */
+		if (engine.isRunning() && engine.getChangedCount() == 0) {
+			return;
+		}
+		this.inputNanos = inputNanos;
+		this.handlerNanos = handlerNanos;
+		this.changedCells = engine.getChangedCount();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The whole board, capped to the usable screen area and rounded down to whole tiles.</p>
+	 */
+	@Override
+	public Dimension getPreferredScrollableViewportSize() {
+
+		/* Determine the usable screen area [unbounded when there is no screen] */
+		int maxWidth = Integer.MAX_VALUE;
+		int maxHeight = Integer.MAX_VALUE;
+		if (!GraphicsEnvironment.isHeadless()) {
+			Rectangle screen = GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
+			maxWidth = Math.max(screen.width - SCREEN_MARGIN_PX, ICON_SIZE_PX) / ICON_SIZE_PX * ICON_SIZE_PX;
+			maxHeight = Math.max(screen.height - SCREEN_MARGIN_PX, ICON_SIZE_PX) / ICON_SIZE_PX * ICON_SIZE_PX;
+		}
+
+		/* Cap the board to it */
+		Dimension board = getPreferredSize();
+		return new Dimension(Math.min(board.width, maxWidth), Math.min(board.height, maxHeight));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>One tile.</p>
+	 */
+	@Override
+	public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+		return ICON_SIZE_PX;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The visible extent less one tile, so a tile of context stays on screen.</p>
+	 */
+	@Override
+	public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+		int extent = (orientation == SwingConstants.HORIZONTAL) ? visibleRect.width : visibleRect.height;
+		return Math.max(extent - ICON_SIZE_PX, ICON_SIZE_PX);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean getScrollableTracksViewportWidth() {
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean getScrollableTracksViewportHeight() {
+		return false;
+	}
+
+	/**
+	 * @return The bounds of the hinted cell's tile
+	 */
+	private Rectangle hintBounds() {
+		int row = hintCell / engine.getCols();
+		int col = hintCell - row * engine.getCols();
+		return new Rectangle(col * ICON_SIZE_PX, row * ICON_SIZE_PX, ICON_SIZE_PX, ICON_SIZE_PX);
+	}
+
+	/**
+	 * <h3>Determines the tile of a cell from the engine's state</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return The image to draw for the cell
+	 */
+	private Image tileFor(int row, int col) {
+
+		switch (engine.getState()) {
+
+			/* If the game has been won, mines are crowned and every other cell turns green */
+			case WON:
+				if (engine.isMined(row, col)) {
+					return Sprites.tile(Sprites.Tile.CROWN);
+				}
+				return Sprites.tile(engine.isRevealed(row, col) ? Sprites.Tile.LO_GREEN : Sprites.Tile.HI_GREEN);
+
+			/* If the game has been lost, mines are shown and every other cell turns red */
+			case LOST:
+				if (engine.isMined(row, col)) {
+					return Sprites.tile(engine.isRevealed(row, col) ? Sprites.Tile.LO_MINE : Sprites.Tile.HI_MINE);
+				}
+				return Sprites.tile(engine.isRevealed(row, col) ? Sprites.Tile.LO_RED : Sprites.Tile.HI_RED);
+
+			/* If the game is running, revealed cells show their number and hidden cells show their flag */
+			default:
+				if (engine.isRevealed(row, col)) {
+					int neighborMines = engine.getNeighborMines(row, col);
+					return neighborMines == 0 ? Sprites.tile(Sprites.Tile.LO) : Sprites.number(neighborMines);
+				}
+				return Sprites.tile(engine.isFlagged(row, col) ? Sprites.Tile.FLAG : Sprites.Tile.HI);
+		}
+	}
+
+}
@@ -0,0 +1,323 @@
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h1>BoardPublisher - Publishes the changes made to a board as a stream of {@link BoardEvent}s</h1>
+ *
+ * <p>Whoever applies moves to a {@link MinesEngine} calls {@link #moved(MinesEngine)} after each one and
+ * {@link #restarted(MinesEngine)} after each new board, and every subscriber receives one event per move carrying only
+ * the cells that move changed, so no subscriber has to poll or rescan the board.</p>
+ *
+ * <p>Every subscriber gets a channel of its own, built on a {@link SubmissionPublisher} with a buffer of at most the
+ * given capacity, and only receives as many events as it has requested. Publishing never waits for a subscriber, since
+ * it happens in the middle of a move. When a subscriber's buffer is full the event is dropped for that subscriber alone,
+ * and it is sent nothing more until its buffer has room again. It is then sent one event listing every cell of the board
+ * [{@link BoardEvent#isFullBoard()}] in place of every change it missed, so a slow subscriber skips ahead to the current
+ * board rather than slowing the game down or buffering without bound, and subscribers that keep up never pay for it.
+ * The full board is built once per catch up, and shared by every subscriber catching up on the same move.</p>
+ *
+ * <p>A subscriber that missed the move ending a game is not left without the result until the next move: the final
+ * board is built as the game ends and sent as soon as the subscriber's buffer has room, and at the latest before the next
+ * board. A subscriber still behind when the publisher is closed is sent the whole board before it completes. No event is
+ * built while nobody is subscribed.</p>
+ *
+ * <p>{@link #async()} delivers on a thread shared by every such publisher, and suits any subscriber outside the game.
+ * {@link #direct()} delivers on the publishing thread itself, before {@link #moved(MinesEngine)} returns, and is only
+ * meant for the game's own view, which requests the next event from within {@code onNext()} and so never falls behind.
+ * Events are published from one thread at a time.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class BoardPublisher implements Flow.Publisher<BoardEvent>, AutoCloseable {
+
+	/* Number of events each subscriber may have waiting by default */
+	public static final int DEFAULT_BUFFER = Flow.defaultBufferSize();
+
+	/* Thread every asynchronous publisher delivers on */
+	private static final ExecutorService DELIVERY = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "BoardPublisher delivery");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/* Where subscribers receive events, and how many each may have waiting */
+	private final Executor executor;
+	private final int bufferCapacity;
+
+	/* The channel of every subscriber */
+	private final CopyOnWriteArrayList<Channel> channels = new CopyOnWriteArrayList<>();
+
+	/* Whether the publisher was closed */
+	private volatile boolean closed = false;
+
+	/* The engine of the last event published [its board is sent on closing to subscribers still behind] */
+	private MinesEngine engine;
+
+	/* Number of events dropped for subscribers that had fallen behind */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * <h3>One subscriber, the buffer of events waiting for it, and how far behind it is</h3>
+	 *
+	 * <p>Stands between the subscriber and its own {@link SubmissionPublisher}, so it sees every event delivered and can
+	 * send the final board of a game as soon as the buffer has room. Its state is guarded by the channel itself, since
+	 * the publishing thread and the delivery thread both change it.</p>
+	 */
+	private final class Channel implements Flow.Subscriber<BoardEvent> {
+
+		/* The subscriber, and the publisher buffering its events */
+		private final Flow.Subscriber<? super BoardEvent> subscriber;
+		private final SubmissionPublisher<BoardEvent> publisher;
+
+		/* Whether an event was dropped since the subscriber was last sent the whole board */
+		private boolean behind = false;
+
+		/* The final board of a game the subscriber missed the end of, waiting for room in the buffer */
+		private BoardEvent pending;
+
+		/* Whether the publisher was closed while the final board was still waiting */
+		private boolean closing = false;
+
+		/**
+		 * <h3>Constructs a Channel and subscribes it to its own publisher</h3>
+		 *
+		 * @param subscriber : The subscriber
+		 */
+		private Channel(Flow.Subscriber<? super BoardEvent> subscriber) {
+			this.subscriber = subscriber;
+			this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+			publisher.subscribe(this);
+		}
+
+		/**
+		 * @return {@code true} if the buffer has room for another event
+		 */
+		private boolean hasRoom() {
+			return publisher.estimateMaximumLag() < bufferCapacity;
+		}
+
+		/**
+		 * <h3>Offers an event, counting it as dropped if the buffer is full</h3>
+		 *
+		 * @param event : The event
+		 *
+		 * @return {@code true} if the event was buffered
+		 */
+		private boolean offer(BoardEvent event) {
+			if (publisher.offer(event, null) < 0) {
+				dropped.incrementAndGet();
+				return false;
+			}
+			return true;
+		}
+
+		/**
+		 * <h3>Sends the waiting final board if the buffer has room, completing the subscriber after it if closing</h3>
+		 *
+		 * @param force : Whether to give up on the final board if the buffer has no room [a new board replaces it]
+		 */
+		private synchronized void sendPending(boolean force) {
+			if (pending == null || (!force && !hasRoom())) {
+				return;
+			}
+			behind = !offer(pending);
+			pending = null;
+			if (closing) {
+				publisher.close();
+			}
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			subscriber.onSubscribe(subscription);
+		}
+
+		@Override
+		public void onNext(BoardEvent event) {
+			subscriber.onNext(event);
+			sendPending(false);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			channels.remove(this);
+			subscriber.onError(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			channels.remove(this);
+			subscriber.onComplete();
+		}
+	}
+
+	/**
+	 * <h3>Constructs a BoardPublisher that delivers events on an executor</h3>
+	 *
+	 * @param executor       : The executor subscribers receive events on
+	 * @param bufferCapacity : The number of events each subscriber may have waiting
+	 *
+	 * @throws IllegalArgumentException {@code if bufferCapacity < 1}
+	 */
+	public BoardPublisher(Executor executor, int bufferCapacity) {
+
+		/* Exception handling */
+		if (bufferCapacity < 1) throw new IllegalArgumentException("BoardPublisher - BoardPublisher() : bufferCapacity < 1 returned true");
+
+		this.executor = executor;
+		this.bufferCapacity = bufferCapacity;
+	}
+
+	/**
+	 * @return A BoardPublisher that delivers every event on the thread publishing it [for the game's own view only]
+	 */
+	public static BoardPublisher direct() {
+		return new BoardPublisher(Runnable::run, DEFAULT_BUFFER);
+	}
+
+	/**
+	 * @return A BoardPublisher that delivers every event on the delivery thread shared by every such publisher
+	 */
+	public static BoardPublisher async() {
+		return new BoardPublisher(DELIVERY, DEFAULT_BUFFER);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>A subscriber that arrives after the publisher was closed is completed at once.</p>
+	 */
+	@Override
+	public void subscribe(Flow.Subscriber<? super BoardEvent> subscriber) {
+		Channel channel = new Channel(subscriber);
+		channels.add(channel);
+		if (closed) {
+			channel.publisher.close();
+		}
+	}
+
+	/**
+	 * <h3>Publishes the changes made by the last move on an engine</h3>
+	 *
+	 * <p>A move that changed nothing publishes nothing [a move that ends the game always changes a cell]. Subscribers
+	 * that fell behind and have room again are sent the whole board instead of the move's changes.</p>
+	 *
+	 * @param engine : The engine the move was made on
+	 */
+	public void moved(MinesEngine engine) {
+		this.engine = engine;
+		if (!hasSubscribers() || engine.getChangedCount() == 0) {
+			return;
+		}
+
+		/* Build the move's event and the full board only once, and only if some subscriber needs them */
+		BoardEvent event = null;
+		BoardEvent fullBoard = null;
+		for (Channel channel : channels) {
+			synchronized (channel) {
+
+				/* A final board still waiting is out of date once the board changes again */
+				channel.pending = null;
+
+				/* A subscriber that is behind is sent the whole board once it has room, and nothing until then */
+				if (channel.behind) {
+					if (!channel.hasRoom()) {
+						dropped.incrementAndGet();
+					} else {
+						fullBoard = (fullBoard == null) ? BoardEvent.fullBoard(engine) : fullBoard;
+						channel.behind = !channel.offer(fullBoard);
+					}
+				} else {
+					event = (event == null) ? BoardEvent.moved(engine) : event;
+					channel.behind = !channel.offer(event);
+				}
+
+				/* If the move that ended the game was missed, keep the final board for when there is room */
+				if (channel.behind && !engine.isRunning()) {
+					fullBoard = (fullBoard == null) ? BoardEvent.fullBoard(engine) : fullBoard;
+					channel.pending = fullBoard;
+				}
+			}
+		}
+	}
+
+	/**
+	 * <h3>Publishes that a new board was dealt on an engine</h3>
+	 *
+	 * <p>Every cell of a new board is hidden, so this also makes up for any event dropped before it. A final board still
+	 * waiting for a subscriber is sent before it, or given up on if that subscriber still has no room.</p>
+	 *
+	 * @param engine : The engine
+	 */
+	public void restarted(MinesEngine engine) {
+		this.engine = engine;
+		if (!hasSubscribers()) {
+			return;
+		}
+		BoardEvent event = BoardEvent.restarted(engine);
+		for (Channel channel : channels) {
+			synchronized (channel) {
+				channel.sendPending(true);
+				channel.behind = !channel.offer(event);
+			}
+		}
+	}
+
+	/**
+	 * <h3>Drops the channels of subscribers that cancelled, and checks whether any are left</h3>
+	 *
+	 * @return {@code true} if any subscriber is left
+	 */
+	private boolean hasSubscribers() {
+		channels.removeIf(channel -> !channel.publisher.hasSubscribers());
+		return !channels.isEmpty();
+	}
+
+	/**
+	 * @return The number of events dropped for subscribers that had fallen behind
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * @return The number of subscribers
+	 */
+	public int getSubscriberCount() {
+		hasSubscribers();
+		return channels.size();
+	}
+
+	/**
+	 * <h3>Completes every subscription, after the events already published have been delivered</h3>
+	 *
+	 * <p>A subscriber that is still behind is sent the whole board first, and completed once it has been sent. Like
+	 * publishing, closing is done on the thread making the moves.</p>
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		BoardEvent fullBoard = null;
+		for (Channel channel : channels) {
+			synchronized (channel) {
+				if (channel.behind && channel.pending == null && engine != null) {
+					fullBoard = (fullBoard == null) ? BoardEvent.fullBoard(engine) : fullBoard;
+					channel.pending = fullBoard;
+				}
+				if (channel.pending == null) {
+					channel.publisher.close();
+				} else {
+					channel.closing = true;
+					channel.sendPending(false);
+				}
+			}
+		}
+	}
+
+}
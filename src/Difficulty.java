@@ -0,0 +1,172 @@
+/**
+ * <h1>Difficulty - Describes a game without building it</h1>
+ *
+ * <p>Holds only the dimensions and number of mines of a board, so the options menu can offer every difficulty without
+ * allocating a window or a board for any of them. {@link #newGame()} builds the game once one has been chosen.</p>
+ *
+ * <p>Custom sizes are checked against the heap before anything is allocated: {@link #estimateBytes()} is the memory the
+ * engines of a game of this size can come to need, and {@link #fitsInMemory()} compares it with what the JVM can still
+ * allocate.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public final class Difficulty {
+
+	/* The preset difficulties */
+	public static final Difficulty BEGINNER		= new Difficulty("Beginner", 8, 8, 10);
+	public static final Difficulty INTERMEDIATE	= new Difficulty("Intermediate", 16, 16, 40);
+	public static final Difficulty ADVANCED		= new Difficulty("Advanced", 16, 24, 60);
+	public static final Difficulty EXPERT		= new Difficulty("Expert", 24, 48, 180);
+
+	/* Every preset, from easiest to hardest */
+	private static final Difficulty[] PRESETS = {BEGINNER, INTERMEDIATE, ADVANCED, EXPERT};
+
+	/*
+	 * Bytes the engines of a game can need per cell: the live and the spare engine each hold 5 one byte arrays [mines,
+	 * flags, reveals, neighbor mines and flagged neighbors], and can grow a flood fill stack and a changed cell list of up
+	 * to one int per cell. Only the engines are counted: a full board event sent to a subscriber that fell behind [5 bytes
+	 * per cell, while it is delivered], and the engines and solvers the no-guess workers deal candidates on [one set per
+	 * worker, and only while no-guess boards are on] come on top
+	 */
+	private static final long BYTES_PER_CELL = 2 * (5 + 2 * Integer.BYTES);
+
+	/* Name shown for the difficulty */
+	private final String name;
+
+	/* Dimensions and number of mines */
+	private final int rows;
+	private final int cols;
+	private final int mines;
+
+	/**
+	 * <h3>Constructs a Difficulty</h3>
+	 *
+	 * @param name  : Name shown for the difficulty
+	 * @param rows  : total number of rows
+	 * @param cols  : total number of columns
+	 * @param mines : total number of mines
+	 *
+	 * @throws IllegalArgumentException {@code if rows < 1 || cols < 1 || mines < 1}
+	 * @throws IllegalArgumentException {@code if mines > (rows * cols)}
+	 */
+	private Difficulty(String name, int rows, int cols, int mines) {
+
+		/* Exception handling */
+		if (rows < 1)                       throw new IllegalArgumentException("Difficulty - Difficulty() : rows < 1 returned true");
+		if (cols < 1)                       throw new IllegalArgumentException("Difficulty - Difficulty() : cols < 1 returned true");
+		if (mines < 1)                      throw new IllegalArgumentException("Difficulty - Difficulty() : mines < 1 returned true");
+		if ((long) rows * cols > Integer.MAX_VALUE) throw new IllegalArgumentException("Difficulty - Difficulty() : (rows * cols) > Integer.MAX_VALUE returned true");
+		if (mines > (rows * cols))          throw new IllegalArgumentException("Difficulty - Difficulty() : mines > (rows * cols) returned true [attempting to add more mines than there are available cells]");
+
+		this.name = name;
+		this.rows = rows;
+		this.cols = cols;
+		this.mines = mines;
+	}
+
+	/**
+	 * <h3>Describes a custom difficulty</h3>
+	 *
+	 * @param rows  : total number of rows
+	 * @param cols  : total number of columns
+	 * @param mines : total number of mines
+	 *
+	 * @return The difficulty
+	 *
+	 * @throws IllegalArgumentException {@code if the dimensions and number of mines do not describe a valid board}
+	 */
+	public static Difficulty custom(int rows, int cols, int mines) {
+		return new Difficulty("Custom", rows, cols, mines);
+	}
+
+	/**
+	 * <h3>Parses a custom difficulty of the form {@code <rows>x<cols>x<mines>}</h3>
+	 *
+	 * @param size : The text to parse
+	 *
+	 * @return The difficulty
+	 *
+	 * @throws IllegalArgumentException {@code if the text is not of that form or does not describe a valid board}
+	 */
+	public static Difficulty parse(String size) {
+		String[] parts = size.trim().split("\\s*[xX]\\s*");
+		if (parts.length != 3) {
+			throw new IllegalArgumentException("Difficulty - parse() : \"" + size + "\" is not of the form <rows>x<cols>x<mines>");
+		}
+		try {
+			return custom(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Difficulty - parse() : \"" + size + "\" is not of the form <rows>x<cols>x<mines>", e);
+		}
+	}
+
+	/**
+	 * @return Every preset difficulty, from easiest to hardest
+	 */
+	public static Difficulty[] presets() {
+		return PRESETS.clone();
+	}
+
+	/**
+	 * <h3>Builds the game of this difficulty</h3>
+	 *
+	 * @return A new game, ready to be started
+	 */
+	public Mines newGame() {
+		return new Mines(rows, cols, mines);
+	}
+
+	/**
+	 * @return The most heap the engines of a game of this size can need, in bytes
+	 */
+	public long estimateBytes() {
+		return (long) rows * cols * BYTES_PER_CELL;
+	}
+
+	/**
+	 * @return {@code true} if the JVM can still allocate {@link #estimateBytes()} bytes
+	 */
+	public boolean fitsInMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+		return estimateBytes() <= available;
+	}
+
+	/**
+	 * @return Name shown for the difficulty
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return total number of rows
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * @return total number of columns
+	 */
+	public int getCols() {
+		return cols;
+	}
+
+	/**
+	 * @return total number of mines
+	 */
+	public int getMines() {
+		return mines;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return rows + "x" + cols + "/" + mines;
+	}
+
+}
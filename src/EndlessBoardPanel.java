@@ -0,0 +1,126 @@
+import javax.swing.JPanel;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.Rectangle;
+
+/**
+ * <h3>EndlessBoardPanel - A pannable window onto an EndlessMinesEngine</h3>
+ *
+ * <p>The panel has a fixed size and shows the cells under it, offset by a view position in pixels that can be moved in
+ * any direction without limit. Only the tiles inside the clip bounds are drawn, and since the engine creates chunks on
+ * demand, reading the visible cells is what brings newly reached chunks into existence. Once a paint is done the engine
+ * is asked to evict any chunks beyond its memory cap.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class EndlessBoardPanel extends JPanel {
+
+	/* Icon size in pixels */
+	private static final int ICON_SIZE_PX = BoardPanel.ICON_SIZE_PX;
+
+	/* The endless field this panel paints */
+	private final EndlessMinesEngine engine;
+
+	/* World position of the panel's top left corner, in pixels */
+	private long viewX = 0;
+	private long viewY = 0;
+
+	/**
+	 * <h3>Constructs an EndlessBoardPanel of the given size in tiles</h3>
+	 *
+	 * @param engine : The engine to paint
+	 * @param rows   : The number of visible rows
+	 * @param cols   : The number of visible columns
+	 */
+	public EndlessBoardPanel(EndlessMinesEngine engine, int rows, int cols) {
+		this.engine = engine;
+		setPreferredSize(new Dimension(cols * ICON_SIZE_PX, rows * ICON_SIZE_PX));
+		setOpaque(true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void paintComponent(Graphics g) {
+
+		/* Determine the range of world cells that intersect the clip bounds */
+		Rectangle clip = g.getClipBounds();
+		if (clip == null) {
+			clip = new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		int rowMin = rowAt(clip.y);
+		int rowMax = rowAt(clip.y + clip.height - 1);
+		int colMin = colAt(clip.x);
+		int colMax = colAt(clip.x + clip.width - 1);
+
+		/* For every cell within the clip bounds, draw its tile at its position relative to the view */
+		for (int row = rowMin;row <= rowMax;++row) {
+			for (int col = colMin;col <= colMax;++col) {
+				g.drawImage(tileFor(row, col), (int) ((long) col * ICON_SIZE_PX - viewX), (int) ((long) row * ICON_SIZE_PX - viewY), null);
+			}
+		}
+
+		/* Let the engine drop any chunks the view has scrolled away from */
+		engine.evictColdChunks();
+	}
+
+	/**
+	 * <h3>Moves the view by the given number of pixels and repaints</h3>
+	 *
+	 * @param dx : Pixels to move right [negative moves left]
+	 * @param dy : Pixels to move down [negative moves up]
+	 */
+	public void pan(int dx, int dy) {
+		viewX += dx;
+		viewY += dy;
+		repaint();
+	}
+
+	/**
+	 * @param y : A y coordinate within the panel
+	 *
+	 * @return The world row under it
+	 */
+	public int rowAt(int y) {
+		return (int) Math.floorDiv(viewY + y, ICON_SIZE_PX);
+	}
+
+	/**
+	 * @param x : An x coordinate within the panel
+	 *
+	 * @return The world column under it
+	 */
+	public int colAt(int x) {
+		return (int) Math.floorDiv(viewX + x, ICON_SIZE_PX);
+	}
+
+	/**
+	 * <h3>Determines the tile of a cell from the engine's state</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return The image to draw for the cell
+	 */
+	private Image tileFor(int row, int col) {
+
+		/* If the game has been lost, mines are shown and every other cell turns red */
+		if (!engine.isRunning()) {
+			if (engine.isMined(row, col)) {
+				return Sprites.tile(engine.isRevealed(row, col) ? Sprites.Tile.LO_MINE : Sprites.Tile.HI_MINE);
+			}
+			return Sprites.tile(engine.isRevealed(row, col) ? Sprites.Tile.LO_RED : Sprites.Tile.HI_RED);
+		}
+
+		/* If the game is running, revealed cells show their number and hidden cells show their flag */
+		if (engine.isRevealed(row, col)) {
+			int neighborMines = engine.getNeighborMines(row, col);
+			return neighborMines == 0 ? Sprites.tile(Sprites.Tile.LO) : Sprites.number(neighborMines);
+		}
+		return Sprites.tile(engine.isFlagged(row, col) ? Sprites.Tile.FLAG : Sprites.Tile.HI);
+	}
+
+}
@@ -0,0 +1,180 @@
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <h1>EndlessMines - A mine clearing game without edges</h1>
+ *
+ * <h2>Goal -</h2>
+ * <b>Clear as much of the endless minefield as possible without clicking any mines.</b>
+ *
+ * <h2>Controls -</h2>
+ * <b>Click:</b> <i>Clicking an unrevealed cell while NOT holding CTRL or ALT will clear the cell</i> <br><br>
+ * <b>CTRL:</b> <i>Holding CTRL and clicking an unrevealed cell will place a flag at the cell</i> <br><br>
+ * <b>ALT:</b> <i>Holding ALT and clicking a flagged cell will remove the flag from the cell</i> <br><br>
+ * <b>Right drag / Arrow keys:</b> <i>Pan the view across the field</i> <br><br>
+ *
+ * <p>Run with {@code java EndlessMines [seed]}. The field is generated chunk by chunk as it is reached, and explored
+ * chunks beyond {@link #MAX_LOADED_CHUNKS} are moved to disk, so memory stays bounded however far the player travels.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class EndlessMines {
+
+	/* Window components */
+	private JFrame frame = new JFrame("Endless Mines - Right drag or arrow keys to pan");
+	private EndlessBoardPanel panel;
+
+	/* Size of the view in tiles */
+	private static final int VIEW_ROWS = 24;
+	private static final int VIEW_COLS = 40;
+
+	/* Fraction of cells that are mines [Expert's density] */
+	private static final double DENSITY = 180.0 / (24 * 48);
+
+	/* Maximum number of chunks held in memory */
+	private static final int MAX_LOADED_CHUNKS = 64;
+
+	/* The endless field this window is a view over */
+	private final EndlessMinesEngine engine;
+
+	/* Last position of a right button drag */
+	private int dragX;
+	private int dragY;
+
+	/**
+	 * <h3>Constructs an EndlessMines over the field of the given world seed</h3>
+	 *
+	 * @param worldSeed : The seed the field is derived from
+	 */
+	public EndlessMines(long worldSeed) {
+
+		/* Create the field and the panel that paints it */
+		engine = new EndlessMinesEngine(worldSeed, DENSITY, MAX_LOADED_CHUNKS);
+		panel = new EndlessBoardPanel(engine, VIEW_ROWS, VIEW_COLS);
+
+		/* Initialize the frame */
+		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		frame.setResizable(false);
+		frame.setIconImage(Sprites.tile(Sprites.Tile.FLAG));
+	}
+
+	/**
+	 * <h3>Starts EndlessMines by setting up the window</h3>
+	 */
+	public void start() {
+
+		/* Add the mouse and key listeners */
+		panel.addMouseListener(mouseAdapter);
+		panel.addMouseMotionListener(mouseAdapter);
+		panel.addKeyListener(keyAdapter);
+		panel.setFocusable(true);
+
+		/* Add the panel to the frame, pack, center, and set visible */
+		frame.add(panel);
+		frame.pack();
+		frame.setLocationRelativeTo(null);
+		frame.setVisible(true);
+		panel.requestFocusInWindow();
+	}
+
+	/**
+	 * <h3>MouseAdapter to handle mouse input</h3>
+	 */
+	private final MouseAdapter mouseAdapter = new MouseAdapter() {
+		@Override
+		public void mousePressed(MouseEvent e) {
+
+			/* If the right button was pressed, start panning and return */
+			if (SwingUtilities.isRightMouseButton(e)) {
+				dragX = e.getX();
+				dragY = e.getY();
+				return;
+			}
+
+			/* If the game is not running and we clicked the screen, reset and return */
+			if (!engine.isRunning()) {
+				engine.reset(ThreadLocalRandom.current().nextLong());
+				frame.setTitle("Endless Mines - Right drag or arrow keys to pan");
+				panel.repaint();
+				return;
+			}
+
+			/* Calculate the world row and column based on the click position */
+			int row = panel.rowAt(e.getY());
+			int col = panel.colAt(e.getX());
+
+			/* Store modifiers */
+			int mod = e.getModifiersEx();
+
+			/* If the user was holding ctrl as they selected this cell [they want to place a flag] */
+			if ((mod & MouseEvent.CTRL_DOWN_MASK) != 0) {
+				engine.flag(row, col);
+			}
+
+			/* If the user was holding alt as they selected this cell [they want to remove a flag] */
+			else if ((mod & MouseEvent.ALT_DOWN_MASK) != 0) {
+				engine.unflag(row, col);
+			}
+
+			/* If the user was holding no mask keys as they selected this cell [they want to clear this cell] */
+			else if (engine.reveal(row, col) == MinesEngine.State.LOST) {
+				frame.setTitle("Game Over - " + engine.getRevealedCells() + " cells cleared - Click to restart");
+				panel.repaint();
+				return;
+			}
+
+			/* Update the title and the board */
+			frame.setTitle(midgameTitle());
+			panel.repaint();
+		}
+
+		@Override
+		public void mouseDragged(MouseEvent e) {
+
+			/* If the right button is held, pan the view along with the mouse */
+			if (SwingUtilities.isRightMouseButton(e)) {
+				panel.pan(dragX - e.getX(), dragY - e.getY());
+				dragX = e.getX();
+				dragY = e.getY();
+			}
+		}
+	};
+
+	/**
+	 * <h3>KeyAdapter to pan the view with the arrow keys</h3>
+	 */
+	private final KeyAdapter keyAdapter = new KeyAdapter() {
+		@Override
+		public void keyPressed(KeyEvent e) {
+			switch (e.getKeyCode()) {
+				case KeyEvent.VK_LEFT:	panel.pan(-BoardPanel.ICON_SIZE_PX, 0); break;
+				case KeyEvent.VK_RIGHT:	panel.pan(BoardPanel.ICON_SIZE_PX, 0); break;
+				case KeyEvent.VK_UP:	panel.pan(0, -BoardPanel.ICON_SIZE_PX); break;
+				case KeyEvent.VK_DOWN:	panel.pan(0, BoardPanel.ICON_SIZE_PX); break;
+				default: break;
+			}
+		}
+	};
+
+	/**
+	 * <h3>Generates the midgame title with information about the cleared cells and memory use</h3>
+	 *
+	 * @return The midgame title
+	 */
+	private String midgameTitle() {
+		return "Endless Mines - Cleared: " + engine.getRevealedCells() + " Flags: " + engine.getTotalFlags()
+				+ " Chunks in memory: " + engine.getLoadedChunks() + " on disk: " + engine.getStoredChunks();
+	}
+
+	public static void main(String[] args) {
+		long seed = (args.length > 0) ? Long.parseLong(args[0]) : ThreadLocalRandom.current().nextLong();
+		SwingUtilities.invokeLater(() -> new EndlessMines(seed).start());
+	}
+
+}
@@ -0,0 +1,735 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * <h1>EndlessMinesEngine - Headless game logic for an endless minefield</h1>
+ *
+ * <p>The field has no edges. It is divided into square chunks of {@link #CHUNK_SIZE} x {@link #CHUNK_SIZE} cells, and
+ * the mines of a chunk are a pure function of the world seed and the chunk's coordinates, so a chunk only has to be
+ * created when a reveal or a view reaches it. Flood fill walks world coordinates and crosses chunk edges freely.</p>
+ *
+ * <p>At most {@code maxLoadedChunks} chunks are kept in memory, in least recently used order. Evicting a chunk that
+ * holds revealed or flagged cells writes just those two bitsets (1 KB per chunk) to an on-disk store, since its mines and
+ * numbers can always be regenerated from the seed. Eviction is deferred to the end of each move, so a chunk is never
+ * evicted while a move is still changing it.</p>
+ *
+ * <p>The mine density must be at least {@link #MIN_DENSITY}. Above it, regions without neighboring mines stay small in
+ * practice and so do flood fills. This is a percolation argument rather than a guarantee: any density allows an
+ * arbitrarily large empty region, only with a vanishing probability.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class EndlessMinesEngine implements AutoCloseable {
+
+	/* Width and height of a chunk in cells [one long holds one row of a chunk] */
+	public static final int CHUNK_SIZE = 64;
+
+	/* Number of cells in a chunk */
+	private static final int CHUNK_CELLS = CHUNK_SIZE * CHUNK_SIZE;
+
+	/* Lowest mine density allowed [below this, regions without neighboring mines tend to grow without bound] */
+	public static final double MIN_DENSITY = 0.12;
+
+	/* Size of a chunk's record in the store [revealed and flagged bitsets] */
+	private static final int RECORD_BYTES = 2 * CHUNK_SIZE * Long.BYTES;
+
+	/* The seed every chunk's mines are derived from */
+	private long worldSeed;
+
+	/* Number of mines in every chunk */
+	private final int CHUNK_MINES;
+
+	/* Maximum number of chunks held in memory between moves */
+	private final int MAX_LOADED_CHUNKS;
+
+	/* Chunks held in memory, in least recently used order */
+	private final LinkedHashMap<Long, Chunk> loaded = new LinkedHashMap<>(16, 0.75f, true);
+
+	/* On-disk store of evicted chunks, and the index of each chunk's record within it */
+	private final File storeFile;
+	private final RandomAccessFile store;
+	private final RecordIndex storeRecords = new RecordIndex();
+
+	/* Reusable buffer for reading and writing a chunk's record */
+	private final byte[] record = new byte[RECORD_BYTES];
+
+	/* The chunk most recently looked up [lets a move walk many cells of one chunk without a map lookup per cell] */
+	private long lastKey;
+	private Chunk lastChunk;
+
+	/* Worklist of packed world coordinates used by floodFill [grown on demand] */
+	private long[] floodStack = new long[64];
+
+	/* Totals over the whole field */
+	private long revealedCells = 0;
+	private long totalFlags = 0;
+
+	/* The current state of the game [an endless game can only be running or lost] */
+	private MinesEngine.State state = MinesEngine.State.RUNNING;
+
+	/**
+	 * <h3>A loaded chunk: its mines, numbers, revealed cells and flags</h3>
+	 */
+	private static final class Chunk {
+
+		/* One long per row, one bit per column */
+		final long[] mined = new long[CHUNK_SIZE];
+		final long[] revealed = new long[CHUNK_SIZE];
+		final long[] flagged = new long[CHUNK_SIZE];
+
+		/* Number of neighboring mines of every cell, indexed by row * CHUNK_SIZE + col */
+		final byte[] neighborMines = new byte[CHUNK_CELLS];
+
+		/* Whether any cell has been revealed or flagged [untouched chunks are never written to the store] */
+		boolean touched = false;
+	}
+
+	/**
+	 * <h3>Open addressing map from a chunk's packed coordinates to the index of its record in the store</h3>
+	 *
+	 * <p>Holds 12 bytes per stored chunk at most half full, instead of a boxed key, a boxed value and an entry object. The
+	 * records are numbered in the order they were first written, so the number of records is also the next index.</p>
+	 */
+	private static final class RecordIndex {
+
+		/* Packed coordinates of every slot's chunk, and its record index plus one [0 marks an empty slot] */
+		long[] keys = new long[64];
+		int[] records = new int[64];
+
+		/* Number of records */
+		int size = 0;
+
+		/**
+		 * <h3>Finds the slot holding a key, or the empty slot where it belongs</h3>
+		 *
+		 * @param key : The packed coordinates of the chunk
+		 *
+		 * @return The index of the slot
+		 */
+		int slot(long key) {
+			int mask = keys.length - 1;
+			long h = key * 0x9E3779B97F4A7C15L;
+			int slot = (int) (h ^ (h >>> 32)) & mask;
+			while (records[slot] != 0 && keys[slot] != key) {
+				slot = (slot + 1) & mask;
+			}
+			return slot;
+		}
+
+		/**
+		 * @param key : The packed coordinates of the chunk
+		 *
+		 * @return The index of the chunk's record, or -1 if it has none
+		 */
+		int get(long key) {
+			return records[slot(key)] - 1;
+		}
+
+		/**
+		 * <h3>Returns the index of a chunk's record, numbering a new record if it has none</h3>
+		 *
+		 * @param key : The packed coordinates of the chunk
+		 *
+		 * @return The index of the chunk's record
+		 */
+		int getOrAdd(long key) {
+			int slot = slot(key);
+			if (records[slot] != 0) {
+				return records[slot] - 1;
+			}
+
+			/* Claim the slot, and grow once the table is half full */
+			keys[slot] = key;
+			records[slot] = ++size;
+			if (size * 2 > keys.length) {
+				long[] oldKeys = keys;
+				int[] oldRecords = records;
+				keys = new long[oldKeys.length * 2];
+				records = new int[oldKeys.length * 2];
+				for (int i = 0;i < oldKeys.length;++i) {
+					if (oldRecords[i] != 0) {
+						int moved = slot(oldKeys[i]);
+						keys[moved] = oldKeys[i];
+						records[moved] = oldRecords[i];
+					}
+				}
+			}
+			return size - 1;
+		}
+
+		/**
+		 * <h3>Forgets every record, keeping the table's capacity</h3>
+		 */
+		void clear() {
+			Arrays.fill(records, 0);
+			size = 0;
+		}
+	}
+
+	/**
+	 * <h3>Constructs an EndlessMinesEngine backed by a temporary chunk store</h3>
+	 *
+	 * @param worldSeed       : the seed every chunk's mines are derived from
+	 * @param density         : the fraction of cells that are mines
+	 * @param maxLoadedChunks : the maximum number of chunks held in memory between moves
+	 *
+	 * @throws IllegalArgumentException {@code if density < MIN_DENSITY || density >= 1 || maxLoadedChunks < 9}
+	 * @throws UncheckedIOException     {@code if the chunk store cannot be created}
+	 */
+	public EndlessMinesEngine(long worldSeed, double density, int maxLoadedChunks) {
+
+		/* Exception handling */
+		if (density < MIN_DENSITY || density >= 1) throw new IllegalArgumentException("EndlessMinesEngine - EndlessMinesEngine() : density < MIN_DENSITY || density >= 1 returned true");
+		if (maxLoadedChunks < 9)                    throw new IllegalArgumentException("EndlessMinesEngine - EndlessMinesEngine() : maxLoadedChunks < 9 returned true [a chunk and its 8 neighbors must fit]");
+
+		/* Store the world seed, mines per chunk and memory cap */
+		this.worldSeed = worldSeed;
+		CHUNK_MINES = (int) Math.round(CHUNK_CELLS * density);
+		MAX_LOADED_CHUNKS = maxLoadedChunks;
+
+		/* Create the chunk store */
+		try {
+			storeFile = File.createTempFile("mines-endless-", ".chunks");
+			storeFile.deleteOnExit();
+			store = new RandomAccessFile(storeFile, "rw");
+		} catch (IOException e) {
+			throw new UncheckedIOException("EndlessMinesEngine - EndlessMinesEngine() : could not create the chunk store", e);
+		}
+	}
+
+	/**
+	 * <h3>Resets the engine to a fresh field derived from the given world seed</h3>
+	 *
+	 * <p>Every loaded chunk is dropped and the store is emptied.</p>
+	 *
+	 * @param worldSeed : the seed every chunk's mines are derived from
+	 *
+	 * @throws UncheckedIOException {@code if the chunk store cannot be emptied}
+	 */
+	public void reset(long worldSeed) {
+
+		/* Store the new world seed */
+		this.worldSeed = worldSeed;
+
+		/* Drop every chunk, in memory and on disk */
+		loaded.clear();
+		lastChunk = null;
+		storeRecords.clear();
+		try {
+			store.setLength(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException("EndlessMinesEngine - reset() : could not empty the chunk store", e);
+		}
+
+		/* Reset the totals and start the game again */
+		revealedCells = 0;
+		totalFlags = 0;
+		state = MinesEngine.State.RUNNING;
+	}
+
+	/**
+	 * <h3>Reveals the specified cell, flood filling across chunks if it has no neighboring mines</h3>
+	 *
+	 * <p>Does nothing if the game is over, or if the cell is flagged or already revealed.</p>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return The state of the game after the move
+	 */
+	public MinesEngine.State reveal(int row, int col) {
+
+		/* If the game is over, or the selected cell is flagged or already revealed, do nothing and return */
+		Chunk chunk = chunkAt(row, col);
+		int r = row & (CHUNK_SIZE - 1);
+		long bit = 1L << (col & (CHUNK_SIZE - 1));
+		if (state != MinesEngine.State.RUNNING || ((chunk.flagged[r] | chunk.revealed[r]) & bit) != 0) {
+			evictColdChunks();
+			return state;
+		}
+
+		/* If the selected cell contains a mine, reveal and end the game */
+		if ((chunk.mined[r] & bit) != 0) {
+			chunk.revealed[r] |= bit;
+			chunk.touched = true;
+			state = MinesEngine.State.LOST;
+		}
+
+		/* Otherwise reveal, flood filling if it has no neighboring mines */
+		else {
+			floodFill(row, col);
+		}
+
+		/* Bring memory back under the cap now that the move is complete */
+		evictColdChunks();
+		return state;
+	}
+
+	/**
+	 * <h3>Places a flag at the specified cell if the cell is unrevealed and doesn't already contain a flag</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if a flag was placed, {@code false} otherwise
+	 */
+	public boolean flag(int row, int col) {
+
+		/* If the game is over, or the selected cell is revealed or already contains a flag, do nothing and return */
+		Chunk chunk = chunkAt(row, col);
+		int r = row & (CHUNK_SIZE - 1);
+		long bit = 1L << (col & (CHUNK_SIZE - 1));
+		if (state != MinesEngine.State.RUNNING || ((chunk.revealed[r] | chunk.flagged[r]) & bit) != 0) {
+			evictColdChunks();
+			return false;
+		}
+
+		/* Place a flag at this cell */
+		chunk.flagged[r] |= bit;
+		chunk.touched = true;
+		++totalFlags;
+		evictColdChunks();
+		return true;
+	}
+
+	/**
+	 * <h3>Removes a flag from the specified cell if the cell contains a flag</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if a flag was removed, {@code false} otherwise
+	 */
+	public boolean unflag(int row, int col) {
+
+		/* If the game is over, or the selected cell does not contain a flag, do nothing and return */
+		Chunk chunk = chunkAt(row, col);
+		int r = row & (CHUNK_SIZE - 1);
+		long bit = 1L << (col & (CHUNK_SIZE - 1));
+		if (state != MinesEngine.State.RUNNING || (chunk.flagged[r] & bit) == 0) {
+			evictColdChunks();
+			return false;
+		}
+
+		/* Remove the flag at this cell */
+		chunk.flagged[r] &= ~bit;
+		--totalFlags;
+		evictColdChunks();
+		return true;
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if the cell contains a mine, {@code false} otherwise
+	 */
+	public boolean isMined(int row, int col) {
+		return (chunkAt(row, col).mined[row & (CHUNK_SIZE - 1)] & (1L << (col & (CHUNK_SIZE - 1)))) != 0;
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if the cell contains a flag, {@code false} otherwise
+	 */
+	public boolean isFlagged(int row, int col) {
+		return (chunkAt(row, col).flagged[row & (CHUNK_SIZE - 1)] & (1L << (col & (CHUNK_SIZE - 1)))) != 0;
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if the cell has been revealed, {@code false} otherwise
+	 */
+	public boolean isRevealed(int row, int col) {
+		return (chunkAt(row, col).revealed[row & (CHUNK_SIZE - 1)] & (1L << (col & (CHUNK_SIZE - 1)))) != 0;
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return The number of neighboring mines of the cell, or {@link MinesEngine#MINE} if the cell is a mine
+	 */
+	public int getNeighborMines(int row, int col) {
+		return chunkAt(row, col).neighborMines[(row & (CHUNK_SIZE - 1)) * CHUNK_SIZE + (col & (CHUNK_SIZE - 1))];
+	}
+
+	/**
+	 * @return The current state of the game
+	 */
+	public MinesEngine.State getState() {
+		return state;
+	}
+
+	/**
+	 * @return {@code true} if the game is still in progress, {@code false} otherwise
+	 */
+	public boolean isRunning() {
+		return state == MinesEngine.State.RUNNING;
+	}
+
+	/**
+	 * @return The seed every chunk's mines are derived from
+	 */
+	public long getWorldSeed() {
+		return worldSeed;
+	}
+
+	/**
+	 * @return The total number of cells revealed
+	 */
+	public long getRevealedCells() {
+		return revealedCells;
+	}
+
+	/**
+	 * @return The total number of flags placed by the player
+	 */
+	public long getTotalFlags() {
+		return totalFlags;
+	}
+
+	/**
+	 * @return The number of chunks currently held in memory
+	 */
+	public int getLoadedChunks() {
+		return loaded.size();
+	}
+
+	/**
+	 * @return The number of chunks that have been written to the on-disk store
+	 */
+	public int getStoredChunks() {
+		return storeRecords.size;
+	}
+
+	/**
+	 * <h3>Evicts chunks until no more than the memory cap remain loaded</h3>
+	 *
+	 * <p>Views that read cells outside of moves call this once they are done, e.g. at the end of a paint.</p>
+	 */
+	public void evictColdChunks() {
+
+		/* Forget the cached lookup, the chunk it refers to may be about to leave memory */
+		lastChunk = null;
+
+		/* Evict least recently used chunks, storing the ones that hold state */
+		Iterator<Map.Entry<Long, Chunk>> eldest = loaded.entrySet().iterator();
+		while (loaded.size() > MAX_LOADED_CHUNKS) {
+			Map.Entry<Long, Chunk> entry = eldest.next();
+			if (entry.getValue().touched) {
+				writeChunk(entry.getKey(), entry.getValue());
+			}
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * <h3>Closes and deletes the chunk store</h3>
+	 */
+	@Override
+	public void close() {
+		try {
+			store.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException("EndlessMinesEngine - close() : could not close the chunk store", e);
+		} finally {
+			storeFile.delete();
+		}
+	}
+
+	/**
+	 * <h3>Performs the flood fill algorithm starting from the provided cell, across chunk edges</h3>
+	 *
+	 * @param row : The row coordinate of the starting cell
+	 * @param col : The column coordinate of the starting cell
+	 */
+	private void floodFill(int row, int col) {
+
+		/* Reveal the starting cell and push it onto the stack */
+		setRevealed(row, col);
+		int size = 0;
+		floodStack[size++] = pack(row, col);
+
+		/* Until every cell with no neighboring mines has had its neighbors cleared */
+		while (size > 0) {
+
+			/* Pop the next cell, only cells with no neighboring mines spread further */
+			long cell = floodStack[--size];
+			int r = (int) (cell >> 32);
+			int c = (int) cell;
+			if (getNeighborMines(r, c) != 0) {
+				continue;
+			}
+
+			/* For every neighbor that is not flagged and not yet revealed, reveal and push it [none of them is a mine] */
+			for (int nr = r - 1;nr <= r + 1;++nr) {
+				for (int nc = c - 1;nc <= c + 1;++nc) {
+					Chunk chunk = chunkAt(nr, nc);
+					int lr = nr & (CHUNK_SIZE - 1);
+					long bit = 1L << (nc & (CHUNK_SIZE - 1));
+					if (((chunk.flagged[lr] | chunk.revealed[lr]) & bit) == 0) {
+						setRevealed(nr, nc);
+						if (size == floodStack.length) {
+							floodStack = Arrays.copyOf(floodStack, size * 2);
+						}
+						floodStack[size++] = pack(nr, nc);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * <h3>Marks a non-mine cell as revealed</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 */
+	private void setRevealed(int row, int col) {
+		Chunk chunk = chunkAt(row, col);
+		chunk.revealed[row & (CHUNK_SIZE - 1)] |= 1L << (col & (CHUNK_SIZE - 1));
+		chunk.touched = true;
+		++revealedCells;
+	}
+
+	/**
+	 * <h3>Finds the chunk holding a cell, creating or restoring it if it is not loaded</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return The chunk holding the cell
+	 */
+	private Chunk chunkAt(int row, int col) {
+
+		/* If this is the chunk we looked up last, return it without touching the map */
+		long key = pack(Math.floorDiv(row, CHUNK_SIZE), Math.floorDiv(col, CHUNK_SIZE));
+		if (lastChunk != null && key == lastKey) {
+			return lastChunk;
+		}
+
+		/* If the chunk is not loaded, create it and restore any state it had in the store */
+		Chunk chunk = loaded.get(key);
+		if (chunk == null) {
+			chunk = newChunk((int) (key >> 32), (int) key);
+			readChunk(key, chunk);
+			loaded.put(key, chunk);
+		}
+
+		/* Remember this lookup and return */
+		lastKey = key;
+		lastChunk = chunk;
+		return chunk;
+	}
+
+	/**
+	 * <h3>Creates a chunk from the world seed: its mines and, from the mines of it and its neighbors, its numbers</h3>
+	 *
+	 * @param chunkRow : The row coordinate of the chunk
+	 * @param chunkCol : The column coordinate of the chunk
+	 *
+	 * @return The new chunk
+	 */
+	private Chunk newChunk(int chunkRow, int chunkCol) {
+
+		/* Place this chunk's mines */
+		Chunk chunk = new Chunk();
+		chunkMines(chunkRow, chunkCol, chunk.mined);
+
+		/* Gather the mines of the 3x3 block of chunks around it, one row of bits per row, with the edges of the neighbors */
+		long[][] block = new long[3][];
+		long[] above = new long[CHUNK_SIZE];
+		long[] below = new long[CHUNK_SIZE];
+		for (int dc = -1;dc <= 1;++dc) {
+			block[dc + 1] = (dc == 0) ? chunk.mined : chunkMines(chunkRow, chunkCol + dc, new long[CHUNK_SIZE]);
+		}
+		long aboveLeft = chunkMines(chunkRow - 1, chunkCol - 1, above)[CHUNK_SIZE - 1];
+		long aboveRight = chunkMines(chunkRow - 1, chunkCol + 1, above)[CHUNK_SIZE - 1];
+		long aboveMid = chunkMines(chunkRow - 1, chunkCol, above)[CHUNK_SIZE - 1];
+		long belowLeft = chunkMines(chunkRow + 1, chunkCol - 1, below)[0];
+		long belowRight = chunkMines(chunkRow + 1, chunkCol + 1, below)[0];
+		long belowMid = chunkMines(chunkRow + 1, chunkCol, below)[0];
+
+		/* For every cell in the chunk */
+		for (int r = 0;r < CHUNK_SIZE;++r) {
+			for (int c = 0;c < CHUNK_SIZE;++c) {
+
+				/* If this cell is a mine, assign the neighbor value to MINE */
+				if ((chunk.mined[r] & (1L << c)) != 0) {
+					chunk.neighborMines[r * CHUNK_SIZE + c] = MinesEngine.MINE;
+					continue;
+				}
+
+				/* Count the mines in the 3x3 neighborhood, reading across the chunk edges where needed */
+				int count = 0;
+				for (int nr = r - 1;nr <= r + 1;++nr) {
+					for (int nc = c - 1;nc <= c + 1;++nc) {
+						int side = (nc < 0) ? 0 : (nc >= CHUNK_SIZE) ? 2 : 1;
+						long bits;
+						if (nr < 0) {
+							bits = (side == 0) ? aboveLeft : (side == 2) ? aboveRight : aboveMid;
+						} else if (nr >= CHUNK_SIZE) {
+							bits = (side == 0) ? belowLeft : (side == 2) ? belowRight : belowMid;
+						} else {
+							bits = block[side][nr];
+						}
+						if ((bits & (1L << (nc & (CHUNK_SIZE - 1)))) != 0) {
+							++count;
+						}
+					}
+				}
+				chunk.neighborMines[r * CHUNK_SIZE + c] = (byte) count;
+			}
+		}
+		return chunk;
+	}
+
+	/**
+	 * <h3>Places the mines of a chunk, derived only from the world seed and the chunk's coordinates</h3>
+	 *
+	 * <p>Uses Floyd's sampling algorithm over the chunk's cell indices, so the cost is bounded by the number of mines.</p>
+	 *
+	 * @param chunkRow : The row coordinate of the chunk
+	 * @param chunkCol : The column coordinate of the chunk
+	 * @param mined    : The row bitsets to fill [cleared first]
+	 *
+	 * @return {@code mined}
+	 */
+	private long[] chunkMines(int chunkRow, int chunkCol, long[] mined) {
+
+		/* Clear any previous mines and seed a generator for this chunk */
+		Arrays.fill(mined, 0L);
+		SplittableRandom random = new SplittableRandom(mix(worldSeed ^ mix(pack(chunkRow, chunkCol))));
+
+		/* For each of the last CHUNK_MINES cell indices, pick a random cell up to it, or the index itself if already mined */
+		for (int last = CHUNK_CELLS - CHUNK_MINES;last < CHUNK_CELLS;++last) {
+			int cell = random.nextInt(last + 1);
+			if ((mined[cell / CHUNK_SIZE] & (1L << cell)) != 0) {
+				cell = last;
+			}
+			mined[cell / CHUNK_SIZE] |= 1L << cell;
+		}
+		return mined;
+	}
+
+	/**
+	 * <h3>Writes a chunk's revealed and flagged bitsets to the store</h3>
+	 *
+	 * @param key   : The packed coordinates of the chunk
+	 * @param chunk : The chunk to write
+	 */
+	private void writeChunk(long key, Chunk chunk) {
+		try {
+
+			/* Reuse the chunk's record if it has one, otherwise append a new record */
+			long offset = (long) storeRecords.getOrAdd(key) * RECORD_BYTES;
+
+			/* Pack both bitsets into the record and write it */
+			for (int r = 0;r < CHUNK_SIZE;++r) {
+				putLong(record, r * Long.BYTES, chunk.revealed[r]);
+				putLong(record, (CHUNK_SIZE + r) * Long.BYTES, chunk.flagged[r]);
+			}
+			store.seek(offset);
+			store.write(record);
+		} catch (IOException e) {
+			throw new UncheckedIOException("EndlessMinesEngine - writeChunk() : could not write to the chunk store", e);
+		}
+	}
+
+	/**
+	 * <h3>Restores a chunk's revealed and flagged bitsets from the store, if it was ever written</h3>
+	 *
+	 * @param key   : The packed coordinates of the chunk
+	 * @param chunk : The freshly created chunk to restore into
+	 */
+	private void readChunk(long key, Chunk chunk) {
+
+		/* If the chunk was never written, it is untouched */
+		int index = storeRecords.get(key);
+		if (index < 0) {
+			return;
+		}
+
+		/* Read the record and unpack both bitsets */
+		try {
+			store.seek((long) index * RECORD_BYTES);
+			store.readFully(record);
+		} catch (IOException e) {
+			throw new UncheckedIOException("EndlessMinesEngine - readChunk() : could not read from the chunk store", e);
+		}
+		for (int r = 0;r < CHUNK_SIZE;++r) {
+			chunk.revealed[r] = getLong(record, r * Long.BYTES);
+			chunk.flagged[r] = getLong(record, (CHUNK_SIZE + r) * Long.BYTES);
+		}
+		chunk.touched = true;
+	}
+
+	/**
+	 * <h3>Packs two ints into a long, the first in the high half</h3>
+	 *
+	 * @param high : The int for the high 32 bits
+	 * @param low  : The int for the low 32 bits
+	 *
+	 * @return The packed long
+	 */
+	private static long pack(int high, int low) {
+		return ((long) high << 32) | (low & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * <h3>Scrambles the bits of a long [the finalizer of MurmurHash3]</h3>
+	 *
+	 * @param z : The long to scramble
+	 *
+	 * @return The scrambled long
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return z ^ (z >>> 33);
+	}
+
+	/**
+	 * <h3>Writes a long into a byte array, big-endian</h3>
+	 *
+	 * @param bytes  : The byte array to write into
+	 * @param offset : The index of the first byte
+	 * @param value  : The long to write
+	 */
+	private static void putLong(byte[] bytes, int offset, long value) {
+		for (int i = Long.BYTES - 1;i >= 0;--i) {
+			bytes[offset + i] = (byte) value;
+			value >>>= 8;
+		}
+	}
+
+	/**
+	 * <h3>Reads a big-endian long from a byte array</h3>
+	 *
+	 * @param bytes  : The byte array to read from
+	 * @param offset : The index of the first byte
+	 *
+	 * @return The long read
+	 */
+	private static long getLong(byte[] bytes, int offset) {
+		long value = 0;
+		for (int i = 0;i < Long.BYTES;++i) {
+			value = (value << 8) | (bytes[offset + i] & 0xFF);
+		}
+		return value;
+	}
+
+}
@@ -0,0 +1,234 @@
+import java.beans.ConstructorProperties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <h1>Histogram - Fixed-bucket histogram of non-negative values</h1>
+ *
+ * <p>Values below {@code 8} get a bucket each. Above that, every power of two is split into 8 equal buckets, so a value
+ * is placed within 1/8 of itself and every non-negative {@code long} fits in {@link #BUCKETS} buckets. The buckets are
+ * allocated once, and {@link #record(long)} only increments counters, so recording allocates nothing and can be done
+ * from any thread while another reads a {@link Summary}.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class Histogram {
+
+	/* Number of buckets each power of two is split into, as a power of two */
+	private static final int SUB_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+	/* Number of buckets [the linear buckets below SUB_BUCKETS, then SUB_BUCKETS per power of two up to 2^62] */
+	static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+	/* Count of values in each bucket */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+	/* Totals over every value recorded */
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * <h3>A summary of the values recorded, as read at one point in time</h3>
+	 */
+	public static final class Summary {
+
+		private final long count;
+		private final double mean;
+		private final long p50;
+		private final long p90;
+		private final long p99;
+		private final long p999;
+		private final long max;
+
+		/**
+		 * <h3>Constructs a Summary</h3>
+		 *
+		 * @param count : The number of values
+		 * @param mean  : The mean value
+		 * @param p50   : The median
+		 * @param p90   : The 90th percentile
+		 * @param p99   : The 99th percentile
+		 * @param p999  : The 99.9th percentile
+		 * @param max   : The largest value
+		 */
+		@ConstructorProperties({"count", "mean", "p50", "p90", "p99", "p999", "max"})
+		public Summary(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+			this.count = count;
+			this.mean = mean;
+			this.p50 = p50;
+			this.p90 = p90;
+			this.p99 = p99;
+			this.p999 = p999;
+			this.max = max;
+		}
+
+		/**
+		 * @return The number of values
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return The mean value [0 if there are none]
+		 */
+		public double getMean() {
+			return mean;
+		}
+
+		/**
+		 * @return The median
+		 */
+		public long getP50() {
+			return p50;
+		}
+
+		/**
+		 * @return The 90th percentile
+		 */
+		public long getP90() {
+			return p90;
+		}
+
+		/**
+		 * @return The 99th percentile
+		 */
+		public long getP99() {
+			return p99;
+		}
+
+		/**
+		 * @return The 99.9th percentile
+		 */
+		public long getP999() {
+			return p999;
+		}
+
+		/**
+		 * @return The largest value
+		 */
+		public long getMax() {
+			return max;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public String toString() {
+			return String.format("n=%d mean=%.1f p50=%d p90=%d p99=%d p99.9=%d max=%d", count, mean, p50, p90, p99, p999, max);
+		}
+	}
+
+	/**
+	 * <h3>Records a value</h3>
+	 *
+	 * @param value : The value [negative values are recorded as 0]
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		buckets.incrementAndGet(bucketOf(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+		long current;
+		while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+			/* Another thread raised the maximum first, try again against its value */
+		}
+	}
+
+	/**
+	 * @return The number of values recorded
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * <h3>Finds the value below or at which a fraction of the recorded values lie</h3>
+	 *
+	 * @param fraction : The fraction, from 0 to 1
+	 *
+	 * @return The upper bound of the bucket holding that value, at most the largest value recorded [0 if there are none]
+	 */
+	public long percentile(double fraction) {
+
+		/* Find the rank of the value [at least the first value] */
+		long total = 0;
+		long[] counts = new long[BUCKETS];
+		for (int i = 0;i < BUCKETS;++i) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(fraction * total));
+
+		/* Walk the buckets up to the one holding that rank */
+		long seen = 0;
+		for (int i = 0;i < BUCKETS;++i) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(upperBound(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * @return A summary of the values recorded so far
+	 */
+	public Summary summary() {
+		long n = count.get();
+		return new Summary(n, (n == 0) ? 0 : (double) sum.get() / n, percentile(0.5), percentile(0.9), percentile(0.99), percentile(0.999), max.get());
+	}
+
+	/**
+	 * <h3>Forgets every value recorded</h3>
+	 *
+	 * <p>Values recorded while resetting may be partly forgotten.</p>
+	 */
+	public void reset() {
+		for (int i = 0;i < BUCKETS;++i) {
+			buckets.set(i, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+	/**
+	 * @param value : A non-negative value
+	 *
+	 * @return The index of the bucket the value falls in
+	 */
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * @param bucket : The index of a bucket
+	 *
+	 * @return The largest value that falls in the bucket
+	 */
+	static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		int sub = bucket % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BITS);
+		return (SUB_BUCKETS + sub) * width + width - 1;
+	}
+
+}
@@ -1,5 +1,4 @@
 import javax.swing.JPanel;
-import javax.swing.ImageIcon;
 import java.awt.Image; 
 import java.awt.Dimension;
 import java.awt.Graphics;
@@ -20,10 +19,10 @@ public class ImagePanel extends JPanel {
 	/**
 	 * <h3>Constructs an ImagePanel from the provided filename</h3>
      * 
-	 * @param filename : The address of the image
+	 * @param filename : The file name of the image, loaded through {@link Sprites#load(String)}
 	 */
 	public ImagePanel(String filename) {
-		this(new ImageIcon(filename).getImage());
+		this(Sprites.load(filename));
 	}
 
 	/**
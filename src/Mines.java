@@ -1,8 +1,23 @@
+import javax.swing.JComponent;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
-import javax.swing.JPanel;
-import javax.swing.JLabel;
-import javax.swing.ImageIcon;
-import java.awt.Dimension;
+import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
@@ -14,8 +29,30 @@ import java.awt.event.MouseEvent;
  * 
  * <h2>Controls -</h2>
  * <b>Click:</b> <i>Clicking an unrevealed cell while NOT holding CTRL or ALT will clear the cell</i> <br><br>
+ * <b>Chord:</b> <i>Clicking a revealed number with as many flags around it will clear every other cell around it</i> <br><br>
  * <b>CTRL:</b> <i>Holding CTRL and clicking an unrevealed cell will place a flag at the cell</i> <br><br>
  * <b>ALT:</b> <i>Holding ALT and clicking a flagged cell will remove the flag from the cell</i> <br><br>
+ * <b>SHIFT:</b> <i>Holding SHIFT and clicking anywhere outlines a cell that is certainly safe [green] or mined [red]</i> <br><br>
+ * <b>CTRL+S / CTRL+O:</b> <i>Save the game in progress / resume a saved game</i> <br><br>
+ * <b>Scroll:</b> <i>Boards larger than the screen are shown in a scrollable, resizable window</i> <br><br>
+ *
+ * <p>Running with {@code -Dmines.noguess=true} deals only boards that can be cleared by logic alone from a start cell,
+ * which is outlined on the new board. They are taken from a {@link NoGuessPool} that generates them in the background,
+ * and the window ignores clicks while it waits for one. Sizes the pool cannot find no-guess boards for are dealt plain
+ * boards instead.</p>
+ *
+ * <p>Running with {@code -Dmines.firstclick=safe} makes the first click of every board safe, and with
+ * {@code -Dmines.firstclick=zero} makes it open an area. Mines in the way are moved elsewhere when the first click is
+ * made. No-guess boards are always played as dealt.</p>
+ *
+ * <p>Running with {@code -Dmines.log=<file>} appends every board dealt and every move made to a {@link MoveLog}, which
+ * {@link MoveReplay} can replay headless.</p>
+ *
+ * <p>Every move and every new board is published as a {@link BoardEvent} carrying only the cells it changed. The board
+ * view repaints from events delivered as each move is made, and any other subscriber can follow the game through
+ * {@link #events()}, on a thread of its own.</p>
+ *
+ * <p>Every move and every board set up is timed into {@link MinesMetrics}, which can be watched through JMX.</p>
  * 
  * @version 0.0.0.0
  * @author Avery Johnson
@@ -24,69 +61,68 @@ public class Mines {
 
 	/* Window components */
 	private JFrame frame = new JFrame("CTRL to place flag - ALT to remove flag");
-	private JPanel panel = new JPanel();
-
-	/* Holds each cells JLabel */
-	private JLabel[][] labels;
-
-	/* Base Icons */
-	private static final ImageIcon HI_ICON			= new ImageIcon("img\\hi.png");
-	private static final ImageIcon HI_RED_ICON		= new ImageIcon("img\\hi_red.png");
-	private static final ImageIcon HI_GREEN_ICON	= new ImageIcon("img\\hi_green.png");
-	private static final ImageIcon LO_ICON			= new ImageIcon("img\\lo.png");
-	private static final ImageIcon LO_RED_ICON		= new ImageIcon("img\\lo_red.png");
-	private static final ImageIcon LO_GREEN_ICON	= new ImageIcon("img\\lo_green.png");
-	
-	/* Special Icons */
-	private static final ImageIcon FLAG_ICON		= new ImageIcon("img\\flag.png");
-	private static final ImageIcon LO_MINE_ICON		= new ImageIcon("img\\lo_mine.png");
-	private static final ImageIcon HI_MINE_ICON		= new ImageIcon("img\\hi_mine.png");
-	private static final ImageIcon CROWN_ICON		= new ImageIcon("img\\crown.png");
-	
-	/* Number Icons */
-	private static final ImageIcon[] NUMBER_ICONS = {
-		null, // There is no 'zero' number icon
-		new ImageIcon("img\\one.png"),
-		new ImageIcon("img\\two.png"),
-		new ImageIcon("img\\three.png"),
-		new ImageIcon("img\\four.png"),
-		new ImageIcon("img\\five.png"),
-		new ImageIcon("img\\six.png"),
-		new ImageIcon("img\\seven.png"),
-		new ImageIcon("img\\eight.png")
-	};
+	private BoardPanel panel;
+	private JScrollPane scrollPane;
 
-	/* Icon size in pixels [determined by HI_ICON's width]*/
-	private static final int ICON_SIZE_PX = HI_ICON.getImage().getWidth(null);
+	/* Default name offered when saving or resuming */
+	private static final String SAVE_FILE_NAME = "mines.sav";
 
-	/* Panel width and height in pixels */
-	private final int PANEL_HEIGHT_PX;
-	private final int PANEL_WIDTH_PX;
+	/* Whether only no-guess boards should be dealt */
+	private static final boolean NO_GUESS = Boolean.getBoolean("mines.noguess");
 
-	/* Total number of rows and columns */
-	private final int ROWS;
-	private final int COLS;
+	/* How the first click of every board is protected [no-guess boards already say where to start] */
+	private static final MinesEngine.FirstClick FIRST_CLICK = NO_GUESS ? MinesEngine.FirstClick.OFF : firstClickProperty();
 
-	/* Total number of mines */
-	private final int TOTAL_MINES;
-	
-	/* Total number of flags placed by the player */
-	private int totalFlags = 0;
+	/* Thread the next board is dealt on while the finished game is still on screen */
+	private static final ExecutorService BOARD_PREPARER = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "Mines next board");
+		thread.setDaemon(true);
+		return thread;
+	});
 
-	/* Stores the number of neighboring mines for each cell */
-	private int[][] neighborMines;
+	/* Where move and board timings are recorded */
+	private static final MinesMetrics METRICS = MinesMetrics.get();
 
-	/* Stores the mines, flags, and revealed cells */
-	private boolean[][] isMined;
-	private boolean[][] isFlagged;
-	private boolean[][] isRevealed;
+	/* Icon size in pixels [determined by the board's tiles] */
+	private static final int ICON_SIZE_PX = BoardPanel.ICON_SIZE_PX;
 
-	/* Determines whether the game is running or not */
-	private boolean isRunning = false;
+	/* The headless game state this window is a view over */
+	private final MinesEngine engine;
 
-	/* Used to track time progression */
+	/* Used to track time progression [holds minus the time already played until the game is started] */
 	private long tInit;
 
+	/* Whether this game was resumed from a save rather than freshly dealt */
+	private final boolean resumed;
+
+	/* Log every board and move is recorded to [null when not logging] */
+	private MoveLog moveLog;
+
+	/* Whether the current board's GAME record is in the log, without which its moves could not be replayed */
+	private boolean boardLogged = false;
+
+	/* Engine the next board is dealt on in the background, then swapped with the live engine [null until the first game ends] */
+	private MinesEngine spareEngine;
+
+	/* The next board being dealt on spareEngine, completing with its start cell [null when no board is being prepared] */
+	private CompletableFuture<Integer> nextBoard;
+
+	/* Whether the window is waiting for the next board, ignoring clicks, and since when */
+	private boolean dealing = false;
+	private long dealRequestNanos;
+
+	/* Pool no-guess boards are taken from [null unless NO_GUESS] */
+	private final NoGuessPool noGuessPool;
+
+	/* Publishes every move and new board to the board view, delivered on the thread making the move */
+	private final BoardPublisher view = BoardPublisher.direct();
+
+	/* Publishes the same events to every other subscriber, on the shared delivery thread so the game never waits for one */
+	private final BoardPublisher events = BoardPublisher.async();
+
+	/* Solver kept up to date with every move once the first hint is asked for [null until then] */
+	private MinesSolver solver;
+
 	/**
 	 * <h3>Constructs a Mines with the provided dimensions and number of mines</h3>
 	 * 
@@ -95,35 +131,97 @@ public class Mines {
 	 * @param mines : total number of mines
 	 * 
 	 * @throws IllegalArgumentException {@code if rows < 1 || cols < 1 || mines < 1}
+	 * @throws IllegalArgumentException {@code if (rows * cols) > Integer.MAX_VALUE}
 	 * @throws IllegalArgumentException {@code if mines > (rows * cols)}
 	 */
 	public Mines(int rows, int cols, int mines) {
+		this(newEngine(rows, cols, mines), 0);
+	}
 
-		/* Exception handling */
-		if (rows < 1)               throw new IllegalArgumentException("Mines - Mines() : rows < 1 returned true");
-		if (cols < 1)               throw new IllegalArgumentException("Mines - Mines() : cols < 1 returned true");
-		if (mines < 1)              throw new IllegalArgumentException("Mines - Mines() : mines < 1 returned true");
-		if (mines > (rows * cols))  throw new IllegalArgumentException("Mines - Mines() : mines > (rows * cols) returned true [attempting to add more mines than there are available cells]");
+	/**
+	 * <h3>Constructs a Mines over an existing engine</h3>
+	 *
+	 * @param engine    : The engine holding the game
+	 * @param elapsedMS : The time already played on the game, in milliseconds
+	 */
+	private Mines(MinesEngine engine, long elapsedMS) {
+
+		/* Store the engine, protect its first clicks, and create the panel that paints it */
+		this.engine = engine;
+		engine.setFirstClick(FIRST_CLICK);
+		panel = new BoardPanel(engine);
+		view.subscribe(panel);
+
+		/* Place the panel in a scroll pane, which only shows scroll bars when the board is larger than the screen */
+		scrollPane = new JScrollPane(panel);
+		scrollPane.setBorder(null);
+
+		/* Backdate the timer by the time already played */
+		tInit = -elapsedMS;
+		resumed = elapsedMS != 0;
+
+		/* Start generating no-guess boards for this size, so one is ready by the time the game starts */
+		boolean noGuess = NO_GUESS && NoGuessPool.canBeNoGuess(engine.getRows(), engine.getCols(), engine.getTotalMines());
+		if (NO_GUESS && !noGuess) {
+			System.err.println("Mines - Mines() : no " + engine.getRows() + "x" + engine.getCols() + "x" + engine.getTotalMines() + " board can be no-guess, dealing plain boards");
+		}
+		noGuessPool = noGuess ? NoGuessPool.forBoard(engine.getRows(), engine.getCols(), engine.getTotalMines()) : null;
 
-		/* Store row, column, and total mine values */
-		ROWS = rows;
-		COLS = cols;
-		TOTAL_MINES = mines;
+		/* Initialize the frame */
+		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+	}
 
-		/* Calculate and store panel width and height values */
-		PANEL_HEIGHT_PX = ROWS * ICON_SIZE_PX;
-		PANEL_WIDTH_PX  = COLS * ICON_SIZE_PX;
+	/**
+	 * <h3>Constructs a Mines that resumes a saved game</h3>
+	 *
+	 * @param path : The save file to resume
+	 *
+	 * @return A Mines holding the saved game, ready to be started
+	 *
+	 * @throws IOException {@code if the file cannot be read or is not a valid save file}
+	 */
+	public static Mines resume(Path path) throws IOException {
+		MinesSave save = MinesSave.load(path);
+		return new Mines(save.getEngine(), save.getElapsedMS());
+	}
+
+	/**
+	 * <h3>Reads how the first click of every board is protected from {@code -Dmines.firstclick}</h3>
+	 *
+	 * @return The protection named by the property in any case, or {@link MinesEngine.FirstClick#OFF} if it is unset or
+	 * names none
+	 */
+	private static MinesEngine.FirstClick firstClickProperty() {
+		String value = System.getProperty("mines.firstclick", "off");
+		for (MinesEngine.FirstClick firstClick : MinesEngine.FirstClick.values()) {
+			if (firstClick.name().equalsIgnoreCase(value.trim())) {
+				return firstClick;
+			}
+		}
+		System.err.println("Mines - firstClickProperty() : unknown mines.firstclick \"" + value + "\" [expected off, safe or zero], first clicks are not protected");
+		return MinesEngine.FirstClick.OFF;
+	}
 
-		/* Initialize flag and revealed arrays */
-		isFlagged   = new boolean[ROWS][COLS];
-		isRevealed  = new boolean[ROWS][COLS];
+	/**
+	 * <h3>Deals the first board of a new game</h3>
+	 *
+	 * @param rows  : total number of rows
+	 * @param cols  : total number of columns
+	 * @param mines : total number of mines
+	 *
+	 * @return The engine holding the board
+	 *
+	 * @throws IllegalArgumentException {@code if rows < 1 || cols < 1 || mines < 1}
+	 * @throws IllegalArgumentException {@code if (rows * cols) > Integer.MAX_VALUE}
+	 * @throws IllegalArgumentException {@code if mines > (rows * cols)}
+	 */
+	private static MinesEngine newEngine(int rows, int cols, int mines) {
 
-		/* Initialize the frame and panel */
-		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-		frame.setResizable(false);
-		frame.setIconImage(FLAG_ICON.getImage());
-		panel.setPreferredSize(new Dimension(PANEL_WIDTH_PX, PANEL_HEIGHT_PX));
-		panel.setLayout(null);
+		/* Deal the first board, timing it [the engine checks the configuration] */
+		long tInit = System.nanoTime();
+		MinesEngine engine = new MinesEngine(rows, cols, mines);
+		METRICS.boardSetup(System.nanoTime() - tInit);
+		return engine;
 	}
 	
 	/**
@@ -131,32 +229,57 @@ public class Mines {
 	 */
 	public void start() {
 
-		/* Generate new random mines */
-		newRandomMines(TOTAL_MINES);
-
-		/* Calculate the neighboring mines based off mines */
-		countAllNeighborMines();
-
-		/* Generate new JLabels */
-		newLabels();
-
-		/* Add the new icons to the panel */
-		addLabelsToPanel();
-
-		/* Add the mouse listener */
+		/* Add the mouse listener and the window icon */
 		panel.addMouseListener(mouseAdapter);
+		frame.setIconImage(Sprites.tile(Sprites.Tile.FLAG));
+
+		/* Add the save and resume shortcuts */
+		frame.getRootPane().registerKeyboardAction(e -> saveGame(), KeyStroke.getKeyStroke(KeyEvent.VK_S, InputEvent.CTRL_DOWN_MASK), JComponent.WHEN_IN_FOCUSED_WINDOW);
+		frame.getRootPane().registerKeyboardAction(e -> resumeGame(), KeyStroke.getKeyStroke(KeyEvent.VK_O, InputEvent.CTRL_DOWN_MASK), JComponent.WHEN_IN_FOCUSED_WINDOW);
+
+		/* Whether the first board is to be swapped for a no-guess one [not when resuming a game in progress] */
+		boolean noGuessFirst = noGuessPool != null && !resumed;
+
+		/* If requested, open the move log [a resumed board cannot be replayed from its seed, so its log starts at the next board] */
+		String logFile = System.getProperty("mines.log");
+		if (logFile != null) {
+			try {
+				moveLog = new MoveLog(Paths.get(logFile));
+				if (!resumed && !noGuessFirst) {
+					logGame();
+				}
+			} catch (IOException e) {
+				logFailed(e);
+			}
+			frame.addWindowListener(new WindowAdapter() {
+				@Override
+				public void windowClosing(WindowEvent e) {
+					closeLog();
+				}
+			});
+		}
 
-		/* Add the panel to the frame, pack, center, and set visible */
-		frame.add(panel);
+		/* Complete every subscription once the window is closed */
+		frame.addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				closePublishers();
+			}
+		});
+
+		/* Add the scroll pane to the frame, pack, center, and set visible */
+		frame.add(scrollPane);
 		frame.pack();
 		frame.setLocationRelativeTo(null);
 		frame.setVisible(true);
 
-		/* Start the game */
-		isRunning = true;
+		/* Initialize the timer, counting any time already played */
+		tInit += System.currentTimeMillis();
 
-		/* Initialize the timer */
-		tInit = System.currentTimeMillis();
+		/* Swap in the first no-guess board as soon as it is ready */
+		if (noGuessFirst) {
+			reset();
+		}
 	}
 
 	/**
@@ -166,26 +289,49 @@ public class Mines {
 		@Override
 		public void mousePressed(MouseEvent e) {
 
+			/* Note when the input arrived, for latency reporting */
+			long inputNanos = System.nanoTime();
+
+			/* If the next board is still being dealt, ignore the click */
+			if (dealing) {
+				return;
+			}
+
 			/* If the game is not running and we clicked the screen, reset and return */
-			if (!isRunning) {
+			if (!engine.isRunning()) {
 				reset();
 				return;
 			}
 
+			/* Store modifiers */
+			int mod = e.getModifiersEx();
+
+			/* If the user was holding shift [they want a hint], show one and return */
+			if (shiftPressed(mod)) {
+				showHint();
+				return;
+			}
+
 			/* Calculate the row and column based on the click position */
 			int row = (int) e.getPoint().getY() / ICON_SIZE_PX;
 			int col = (int) e.getPoint().getX() / ICON_SIZE_PX;
 
-			/* If we clicked a cell that has already been revealed, do nothing and return */
-			if (isRevealed[row][col]) {
+			/* If we clicked a cell that has already been revealed with a mask key held, do nothing and return */
+			boolean revealed = engine.isRevealed(row, col);
+			if (revealed && (ctrlPressed(mod) || altPressed(mod))) {
 				return;
 			}
 
-			/* Store modifiers */
-			int mod = e.getModifiersEx();
+			/* Any hint shown is out of date once a move is made */
+			panel.clearHint();
+
+			/* If the user clicked a revealed cell [they want to chord it] */
+			if (revealed) {
+				chordCell(row, col);
+			}
 
 			/* If the user was holding ctrl as they selected this cell [they want to place a flag] */
-			if (ctrlPressed(mod)) {
+			else if (ctrlPressed(mod)) {
 				placeFlag(row, col);
 			}
 
@@ -198,6 +344,9 @@ public class Mines {
 			else {
 				selectCell(row, col);
 			}
+
+			/* Hand the move's timing to the panel that will paint it */
+			panel.markMove(inputNanos, System.nanoTime() - inputNanos);
 		}
 	};
 
@@ -209,16 +358,18 @@ public class Mines {
 	 */
 	private void placeFlag(int row, int col) {
 
-		/* If the selected cell already contains a flag, do nothing and return */
-		if (isFlagged[row][col]) {
-			return;
+		/* Record the move */
+		logMove(MoveLog.FLAG, row, col);
+
+		/* If the engine placed a flag at this cell, update the cell and the title */
+		long tMove = System.nanoTime();
+		boolean placed = engine.flag(row, col);
+		METRICS.move(System.nanoTime() - tMove);
+		if (placed) {
+			updateSolver();
+			publishMove();
+			frame.setTitle(midgameTitle());
 		}
-
-		/* Place a flag at this cell */
-		isFlagged[row][col] = true;
-		labels[row][col].setIcon(FLAG_ICON);
-		++totalFlags;
-		frame.setTitle(midgameTitle());
 	}
 
 	/**
@@ -229,16 +380,18 @@ public class Mines {
 	 */
 	private void removeFlag(int row, int col) {
 
-		/* If the selected cell does not contain a flag, do nothing and return */
-		if (!isFlagged[row][col]) {
-			return;
+		/* Record the move */
+		logMove(MoveLog.UNFLAG, row, col);
+
+		/* If the engine removed the flag at this cell, update the cell and the title */
+		long tMove = System.nanoTime();
+		boolean removed = engine.unflag(row, col);
+		METRICS.move(System.nanoTime() - tMove);
+		if (removed) {
+			updateSolver();
+			publishMove();
+			frame.setTitle(midgameTitle());
 		}
-
-		/* Remove the flag at this cell */
-		isFlagged[row][col] = false;
-		labels[row][col].setIcon(HI_ICON);
-		--totalFlags;
-		frame.setTitle(midgameTitle());
 	}
 
 	/**
@@ -249,305 +402,374 @@ public class Mines {
 	 */
 	private void selectCell(int row, int col) {
 
-		/* If the selected cell contains a flag, do nothing and return */
-		if (isFlagged[row][col]) {
-			return;
-		}
-
-		/* If the selected cell contains a mine, reveal and gameOver */
-		if (isMined[row][col]) {
-			isRevealed[row][col] = true;
-			gameOver();
-		}
-
-		/* If the selected cell has at least one neighbor, reveal and check for victory */
-		else if (neighborMines[row][col] != 0) {
-			labels[row][col].setIcon(NUMBER_ICONS[neighborMines[row][col]]);
-			isRevealed[row][col] = true;
-			checkForVictory();
-		}
-
-		/* If the selected cell has no neighbors, flood fill and check for victory */
-		else {
-			floodFill(row, col);
-			checkForVictory();
-		}
-	}
-
-	/**
-	 * <h3>Performs the flood fill algorithm starting from the provided cell</h3>
-	 * 
-	 * @param row : The row coordinate of the starting cell
-	 * @param col : The column coordinate of the starting cell
-	 */
-	private void floodFill(int row, int col) {
-
-		/* If the selected cell is flagged, do nothing and return */
-		if (isFlagged[row][col]) {
-			return;
-		}
-
-		/* If the selected cell has no neighboring mines, reveal the cell and clear */
-		if (neighborMines[row][col] == 0) {
-			labels[row][col].setIcon(LO_ICON);
-			isRevealed[row][col] = true;
-			clear(row, col);
+		/* Record the move */
+		logMove(MoveLog.REVEAL, row, col);
 
-		/* If the selected cell as at least one neighboring mines, reveal the cell */
-		} else {
-			labels[row][col].setIcon(NUMBER_ICONS[neighborMines[row][col]]);
-			isRevealed[row][col] = true;
-		}
+		/* Let the engine reveal the cell, then bring the window up to date with the outcome */
+		long tMove = System.nanoTime();
+		MinesEngine.State state = engine.reveal(row, col);
+		METRICS.reveal(System.nanoTime() - tMove, engine.getChangedCount());
+		afterMove(state);
 	}
 
 	/**
-	 * <h3>Clears neighboring cells recursively, starting from the given cell</h3>
-	 * 
-	 * @param r : The row coordinate of the starting cell
-	 * @param c : The column coordinate of the starting cell
+	 * <h3>Handles the chording of a revealed cell</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
 	 */
-	private void clear(int r, int c) {
+	private void chordCell(int row, int col) {
 
-		/* For every cell */
-		for (int row = 0;row < ROWS;++row) {
-			for (int col = 0;col < COLS;++col) {
+		/* Record the move */
+		logMove(MoveLog.CHORD, row, col);
 
-				/* If this cell is not a mine, has not been revealed, and is a neighbor of the passed cell, floodfill */
-				if (!isMined[row][col] && !isRevealed[row][col] && isNeighbor(row, col, r, c)) {
-					floodFill(row, col);
-				}
-			}
-		}
+		/* Let the engine open the cell's neighbors, then bring the window up to date with the outcome */
+		long tMove = System.nanoTime();
+		MinesEngine.State state = engine.chord(row, col);
+		METRICS.reveal(System.nanoTime() - tMove, engine.getChangedCount());
+		afterMove(state);
 	}
 
 	/**
-	 * <h3>Checks for victory by verifying if every non-mine cell has veen revealed</h3>
+	 * <h3>Brings the window up to date with the outcome of a reveal or a chord</h3>
+	 *
+	 * @param state : The state of the game after the move
 	 */
-	private void checkForVictory() {
-
-		/* For every cell */
-		for (int row = 0;row < ROWS;++row) {
-			for (int col = 0;col < COLS;++col) {
-
-				/* If this cell is not a mine and has not been revealed we have not won, do nothing and return */
-				if (!isMined[row][col] && !isRevealed[row][col]) {
-					return;
-				}
-			}
+	private void afterMove(MinesEngine.State state) {
+		publishMove();
+		switch (state) {
+			case WON:
+				victory();
+				break;
+			case LOST:
+				gameOver();
+				break;
+			default:
+				updateSolver();
+				break;
 		}
-
-		/* If we have revealed every non-mine cell, declare victory */
-		victory();
 	}
 
 	/**
-	 * <h3>Handles the victory scenario by stopping the game, updating the window and revealing the state of each cell</h3>
+	 * <h3>Handles the victory scenario by updating the window and revealing the state of each cell</h3>
 	 */
 	private void victory() {
 
-		/* Stop game from running */
-		isRunning = false;
-
 		/* Update the window title */
-		frame.setTitle("You Win - " + ((float)getDurationMS() / 1000) + "s - Click to restart");
-		
-		/* For every cell */
-		for (int row = 0;row < ROWS;++row) {
-			for (int col = 0;col < COLS;++col) {
-
-				/* If this cell is a mine, set to crown icon */
-				if (isMined[row][col]) {
-					labels[row][col].setIcon(CROWN_ICON);
-
-				/* If this cell is revealed, set to low green icon */
-				} else if (isRevealed[row][col]) {
-					labels[row][col].setIcon(LO_GREEN_ICON);
-				
-				/* If this cell is not a mine and not revealed, set to high green icon */
-				} else {
-					labels[row][col].setIcon(HI_GREEN_ICON);
-				}
-			}
-		}
+		frame.setTitle("You Win - " + ((float)getDurationMS() / 1000) + "s - Board " + engine.getBoardId() + " - Click to restart");
+
+		/* Make sure the finished game is on disk, and start dealing the next board */
+		flushLog();
+		prepareNextBoard();
 	}
 
 	/**
-	 * <h3>Handles the game over scenario by stopping the game, updating the window and revealing the state of each cell</h3>
+	 * <h3>Handles the game over scenario by updating the window and revealing the state of each cell</h3>
 	 */
 	private void gameOver() {
 
-		/* Stop game from running */
-		isRunning = false;
-
 		/* Update the window title */
-		frame.setTitle("Game Over - " + ((float)getDurationMS() / 1000) + "s - Click to restart");
-		
-		/* For every cell */
-		for (int row = 0;row < ROWS;++row) {
-			for (int col = 0;col < COLS;++col) {
-
-				/* If this cell is a mine */
-				if (isMined[row][col]) {
-
-					/* If this cell is revealed, set to low mine icon */
-					if (isRevealed[row][col]) {
-						labels[row][col].setIcon(LO_MINE_ICON);
-					}
+		frame.setTitle("Game Over - " + ((float)getDurationMS() / 1000) + "s - Board " + engine.getBoardId() + " - Click to restart");
 
-					/* If this cell is not revealed, set to high mine icon */
-					else {
-						labels[row][col].setIcon(HI_MINE_ICON);
-					}
-				
-				/* If this cell is revealed, set to low red icon */
-				} else if (isRevealed[row][col]) {
-					labels[row][col].setIcon(LO_RED_ICON);
-				
-				/* If this cell is not revealed, set to high red icon */
-				} else {
-					labels[row][col].setIcon(HI_RED_ICON);
-				}
-			}
-		}
+		/* Make sure the finished game is on disk, and start dealing the next board */
+		flushLog();
+		prepareNextBoard();
 	}
 
 	/**
 	 * <h3>Resets Mines to its initial state</h3>
+	 *
+	 * <p>The next board is always dealt in the background and swapped in, which takes constant time. If it is not ready
+	 * yet, the window ignores clicks and this is called again on the event dispatch thread once it is.</p>
 	 */
 	private void reset() {
 
-		/* Clear flaged and revealed cells */
-		isFlagged = new boolean[ROWS][COLS];
-		isRevealed = new boolean[ROWS][COLS];
-		
-		/* Reset the total number of flags */
-		totalFlags = 0;
+		/* Start dealing the next board, if that has not started yet */
+		if (!dealing) {
+			dealRequestNanos = System.nanoTime();
+		}
+		prepareNextBoard();
+
+		/* If it is not ready, come back once it is rather than wait for it here */
+		if (!nextBoard.isDone()) {
+			if (!dealing) {
+				dealing = true;
+				frame.setTitle("Dealing the next board...");
+				nextBoard.whenComplete((prepared, e) -> SwingUtilities.invokeLater(() -> {
+					if (frame.isDisplayable()) {
+						reset();
+					}
+				}));
+			}
+			return;
+		}
 
-		/* Generate new random mines */
-		newRandomMines(TOTAL_MINES);
+		/* Swap in the prepared board, timing how long the player waited for it, and record it */
+		int startCell = takeNextBoard();
+		METRICS.boardSetup(System.nanoTime() - dealRequestNanos);
+		dealing = false;
+		logGame();
 
-		/* Count all the neighboring mines */
-		countAllNeighborMines();
+		/* The solver starts over on the new board */
+		if (solver != null) {
+			solver.rescan();
+		}
 
-		/* For every cell, set the icon back to the high icon */
-		for (int row = 0;row < ROWS;++row) {
-			for (int col = 0;col < COLS;++col) {
-				labels[row][col].setIcon(HI_ICON);
-			}
+		/* Publish the new board, which repaints every cell back to the high icon, and outline where a no-guess board should be opened */
+		panel.clearHint();
+		view.restarted(engine);
+		events.restarted(engine);
+		if (startCell >= 0) {
+			panel.showHint(startCell, true);
 		}
 
 		/* Update the window title */
 		frame.setTitle("CTRL to place flag - ALT to remove flag");
 
-		/* Start the game again */
-		isRunning = true;
-
 		/* Start the timer again */
 		tInit = System.currentTimeMillis();
 	}
 
 	/**
-	 * <h3>Randomly places a defined number of mines on the game board</h3>
-	 * 
-	 * @param mines : The total number of mines to be placed
+	 * <h3>Starts dealing the next board on the spare engine in the background</h3>
+	 *
+	 * <p>The spare engine is created on the first call and reused after that, so each board is dealt into the buffers
+	 * of the board before last.</p>
 	 */
-	private void newRandomMines(int mines) {
-
-		/* Clear any previous mines */
-		isMined = new boolean[ROWS][COLS];
+	private void prepareNextBoard() {
+		if (nextBoard != null) {
+			return;
+		}
+		nextBoard = CompletableFuture.supplyAsync(() -> {
+			if (spareEngine == null) {
+				spareEngine = new MinesEngine(engine.getRows(), engine.getCols(), engine.getTotalMines(), 0);
+			}
+			return dealBoard(spareEngine);
+		}, BOARD_PREPARER);
+	}
 
-		/* Tracks the number of mines we have placed */
-		int placedMines = 0;
+	/**
+	 * <h3>Puts the prepared next board on the live engine</h3>
+	 *
+	 * <p>Only called once the board is ready, so it never waits.</p>
+	 *
+	 * @return The index of the cell a no-guess board should be opened from, or -1 for a random board
+	 */
+	private int takeNextBoard() {
+
+		/* Swap in the prepared board, dealing a plain one here if preparing it failed */
+		CompletableFuture<Integer> prepared = nextBoard;
+		nextBoard = null;
+		try {
+			int startCell = prepared.join();
+			engine.swapBoard(spareEngine);
+			return startCell;
+		} catch (CompletionException e) {
+			System.err.println("Mines - takeNextBoard() : preparing the next board failed [" + e.getCause() + "]");
+			engine.reset();
+			return -1;
+		}
+	}
 
-		/* Tracks our coordinates */
-		int row;
-		int col;
+	/**
+	 * <h3>Deals the next board on an engine, a no-guess one from the pool if enabled</h3>
+	 *
+	 * <p>Waits for the pool, so it is only called on the thread boards are prepared on. Once the pool has given up on
+	 * the board's size, plain boards are dealt instead.</p>
+	 *
+	 * @param target : The engine to deal on
+	 *
+	 * @return The index of the cell a no-guess board should be opened from, or -1 for a random board
+	 */
+	private int dealBoard(MinesEngine target) {
+		NoGuessPool.Board board = (noGuessPool == null) ? null : noGuessPool.take();
+		if (board == null) {
+			target.reset();
+			return -1;
+		}
+		target.reset(board.getSeed());
+		return board.getStartCell();
+	}
 
-		/* Continuously loop until we have met the total number of mines */
-		while (placedMines < TOTAL_MINES) {
+	/**
+	 * <h3>Outlines a cell the solver can prove safe, or failing that an unflagged mine</h3>
+	 */
+	private void showHint() {
 
-			/* Pick a random coordinate */
-			row = (int) (Math.random() * ROWS);
-			col = (int) (Math.random() * COLS);
+		/* Create the solver on first use, after that it follows every move */
+		if (solver == null) {
+			solver = new MinesSolver(engine, false);
+		}
+		solver.solve();
 
-			/* If we do not already have a mine in that position, place here */
-			if (!isMined[row][col]) {
-				isMined[row][col] = true;
-				++placedMines;
-			}
+		/* Prefer a safe cell, since revealing it makes progress */
+		int cell = solver.nextSafeCell();
+		if (cell >= 0) {
+			panel.showHint(cell, true);
+			return;
+		}
+		cell = solver.nextUnflaggedMine();
+		if (cell >= 0) {
+			panel.showHint(cell, false);
+			return;
 		}
+
+		/* Nothing can be proven from the board as it stands */
+		panel.clearHint();
+		frame.setTitle("No certain move - a guess is needed");
 	}
 
 	/**
-	 * <h3>Counts and updates the number of neighboring mines for each cell</h3>
+	 * <h3>Publishes the cells changed by the last move to the board view and every other subscriber</h3>
 	 */
-	private void countAllNeighborMines() {
+	private void publishMove() {
+		view.moved(engine);
+		events.moved(engine);
+	}
 
-		/* Clear any previous neighbor values */
-		neighborMines = new int[ROWS][COLS];
+	/**
+	 * <h3>Hands the cells changed by the last move to the solver, if hints have been used</h3>
+	 */
+	private void updateSolver() {
+		if (solver != null) {
+			solver.update();
+		}
+	}
 
-		/* For every cell */
-		for (int row = 0;row < ROWS;++row) {
-			for (int col = 0;col < COLS;++col) {
+	/**
+	 * <h3>Records the board just dealt to the move log, if logging</h3>
+	 */
+	private void logGame() {
+		boardLogged = false;
+		if (moveLog != null) {
+			try {
+				moveLog.game(engine);
+				boardLogged = true;
+			} catch (IOException e) {
+				logFailed(e);
+			}
+		}
+	}
 
-				/* If we have found a mine */
-				if (isMined[row][col]) {
+	/**
+	 * <h3>Records a move to the move log, if logging and the board it is made on was recorded</h3>
+	 *
+	 * <p>The moves of a resumed board are left out, since the log holds no GAME record they could be replayed on.</p>
+	 *
+	 * @param type : {@link MoveLog#REVEAL}, {@link MoveLog#FLAG}, {@link MoveLog#UNFLAG} or {@link MoveLog#CHORD}
+	 * @param row  : The row coordinate of the cell
+	 * @param col  : The column coordinate of the cell
+	 */
+	private void logMove(byte type, int row, int col) {
+		if (moveLog != null && boardLogged) {
+			try {
+				moveLog.move(type, row * engine.getCols() + col);
+			} catch (IOException e) {
+				logFailed(e);
+			}
+		}
+	}
 
-					/* Assign the neighbor value to 9 */
-					neighborMines[row][col] = 9; // A value of 9 denotes a mine within neighborMines
-				
-				/* If we are searching in a non-mine cell */
-				} else {
+	/**
+	 * <h3>Appends any buffered records to the move log, if logging</h3>
+	 */
+	private void flushLog() {
+		if (moveLog != null) {
+			try {
+				moveLog.flush();
+			} catch (IOException e) {
+				logFailed(e);
+			}
+		}
+	}
 
-					/* Calculate the number of neighboring mines and store into the array */
-					neighborMines[row][col] = countNeighborMines(row, col);
-				}
+	/**
+	 * <h3>Closes the move log, if logging</h3>
+	 */
+	private void closeLog() {
+		if (moveLog != null) {
+			try {
+				moveLog.close();
+			} catch (IOException e) {
+				System.err.println("Mines - closeLog() : could not close the move log [" + e.getMessage() + "]");
 			}
+			moveLog = null;
 		}
 	}
 
 	/**
-	 * <h3>Counts the number of neighboring mines for a given cell</h3>
-	 * 
-	 * @param row : The row coordinate of the cell
-	 * @param col : The column coordinate of the cell
-	 * 
-	 * @return The number of neighboring mines
+	 * <h3>Completes the board view's and every other subscriber's subscription, once this game is over for good</h3>
 	 */
-	private int countNeighborMines(int row, int col) {
+	private void closePublishers() {
+		view.close();
+		events.close();
+	}
 
-		/* Tracks the number of neighboring mines found */
-		int neighborMines = 0;
+	/**
+	 * <h3>Reports a move log failure and stops logging, the game itself carries on</h3>
+	 *
+	 * @param e : The failure
+	 */
+	private void logFailed(IOException e) {
+		System.err.println("Mines - logFailed() : move logging stopped [" + e.getMessage() + "]");
+		closeLog();
+	}
 
-		/* For every cell */
-		for (int r = 0;r < isMined.length;++r) {
-			for (int c = 0;c < isMined[row].length;++c) {
+	/**
+	 * <h3>Asks for a file and saves the game in progress to it</h3>
+	 */
+	private void saveGame() {
 
-				/* If this cell is a neighbor and is a mine, increment the counter */
-				if (isNeighbor(r, c, row, col) && isMined[r][c]) {
-					++neighborMines;
-				}
-			}
+		/* Ask where to save, do nothing if the user cancels */
+		JFileChooser chooser = new JFileChooser();
+		chooser.setSelectedFile(new File(SAVE_FILE_NAME));
+		if (chooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+			return;
 		}
 
-		/* Return the total */
-		return neighborMines;
+		/* Save the game, reporting any failure */
+		try {
+			MinesSave.save(chooser.getSelectedFile().toPath(), engine, getDurationMS());
+		} catch (IOException e) {
+			JOptionPane.showMessageDialog(frame, e.getMessage(), "Could not save the game", JOptionPane.ERROR_MESSAGE);
+		}
 	}
 
 	/**
-	 * <h3>Checks if two cells are neighbors</h3>
-	 * 
-	 * @param row1 : The row coordinate of the first cell
-	 * @param col1 : The column coordinate of the first cell
-	 * @param row2 : The row coordinate of the first cell
-	 * @param col2 : The column coordinate of the first cell
-	 * 
-	 * @return {@code true} if the cells are neighbors, {@code false} otherwise
+	 * <h3>Asks for a save file and replaces this window with the game it holds</h3>
 	 */
-	private static boolean isNeighbor(int row1, int col1, int row2, int col2) {
+	private void resumeGame() {
+
+		/* Ask which file to resume, do nothing if the user cancels */
+		JFileChooser chooser = new JFileChooser();
+		chooser.setSelectedFile(new File(SAVE_FILE_NAME));
+		if (chooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
 
-		/* If the first and second rows are both within 1 of eachother (and is not itself), they are neighbors */
-		return (Math.abs(row1 - row2) <= 1 && Math.abs(col1 - col2) <= 1) && (row1 != row2 || col1 != col2);
+		/* Load the game into a new window and close this one, reporting any failure */
+		try {
+			Mines resumed = resume(chooser.getSelectedFile().toPath());
+			closeLog();
+			closePublishers();
+			frame.dispose();
+			resumed.start();
+		} catch (IOException e) {
+			JOptionPane.showMessageDialog(frame, e.getMessage(), "Could not resume the game", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+
+	/**
+	 * <h3>Returns the stream of this game's events</h3>
+	 *
+	 * <p>Events are delivered on a delivery thread shared by every game, never on the event dispatch thread. A subscriber
+	 * that falls a full buffer behind has events dropped rather than hold the game up, and then receives the whole board
+	 * in one event to catch up [{@link BoardEvent#isFullBoard()}].</p>
+	 *
+	 * @return The publisher of every move and new board of this game
+	 */
+	public Flow.Publisher<BoardEvent> events() {
+		return events;
 	}
 
 	/**
@@ -556,9 +778,8 @@ public class Mines {
 	 * @return The midgame title
 	 */
 	private String midgameTitle() {
-		return "Mines - Flags placed: " + totalFlags + " Total mines: " + TOTAL_MINES;
+		return "Mines - Flags placed: " + engine.getTotalFlags() + " Total mines: " + engine.getTotalMines();
 	}
-
 	/**
 	 * <h3>Calculates the duration of the game in milliseconds</h3>
 	 * 
@@ -568,38 +789,6 @@ public class Mines {
 		return System.currentTimeMillis() - tInit;
 	}
 
-	/**
-	 * <h3>Initializes the JLabels for each cell</h3>
-	 */
-	private void newLabels() {
-
-		/* Initialize the label array */
-		labels = new JLabel[ROWS][COLS];
-
-		/* For every cell */
-		for (int row = 0;row < ROWS;++row) {
-			for (int col = 0;col < COLS;++col) {
-
-				/* Initialize new JLabels and set bounds  */
-				labels[row][col] = new JLabel(HI_ICON);
-				labels[row][col].setBounds(col * ICON_SIZE_PX, row * ICON_SIZE_PX, ICON_SIZE_PX, ICON_SIZE_PX);
-			}
-		}
-	}
-
-	/**
-	 * <h3>Adds the labels representing cells to the panel</h3>
-	 */
-	private void addLabelsToPanel() {
-
-		/* For every cell, add its label to panel */
-		for (int row = 0;row < ROWS;++row) {
-			for (int col = 0;col < COLS;++col) {
-				panel.add(labels[row][col]);
-			}
-		}
-	}
-	
 	/**
 	 * <h3>Checks if the CTRL key is pressed based on the given modifier value</h3>
 	 * 
@@ -622,4 +811,15 @@ public class Mines {
 		return (mod & MouseEvent.ALT_DOWN_MASK) != 0;
 	}
 
+	/**
+	 * <h3>Checks if the SHIFT key is pressed based on the given modifier value</h3>
+	 *
+	 * @param mod : The modifier value
+	 *
+	 * @return {@code true} if the SHIFT key is pressed, {@code false} otherwise
+	 */
+	private static boolean shiftPressed(int mod) {
+		return (mod & MouseEvent.SHIFT_DOWN_MASK) != 0;
+	}
+
 }
@@ -0,0 +1,1229 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <h1>MinesEngine - Headless game logic for Mines</h1>
+ *
+ * <p>Holds the complete state of a single minefield (mines, neighbor counts, flags and revealed cells) and applies the
+ * rules of the game to it. This class has no dependency on AWT or Swing, so games can be played, simulated and profiled
+ * without a display. {@link Mines} is a view over an instance of this class.</p>
+ *
+ * <p>Cells are addressed by {@code (row, col)} in the public API. Internally every per-cell array is flat and indexed by
+ * {@code row * cols + col}.</p>
+ *
+ * <p>Every board is dealt from a 64-bit seed, so the same dimensions, mine count and seed always produce the same board.
+ * {@link #getBoardId()} packs all four into a string that {@link #fromBoardId(String)} turns back into the same board.</p>
+ *
+ * <p>Every move records the cells whose revealed or flagged state it changed, so a view only has to redraw those cells
+ * (see {@link #getChangedCount()} and {@link #getChangedCell(int)}).</p>
+ *
+ * <p>Every cell also keeps a count of its flagged neighbors, updated by {@link #flag(int, int)} and
+ * {@link #unflag(int, int)}, so {@link #chord(int, int)} can tell whether a number is satisfied without looking at its
+ * neighborhood, and only pays for the cells it opens.</p>
+ *
+ * <p>{@link #applyMoves(MoveBatch)} applies a whole sequence of moves in one call and collects every cell they change,
+ * with the value the player now sees, into the batch's primitive arrays, so bots, replays and network clients can play
+ * many moves without allocating or being called back per move.</p>
+ *
+ * <p>With {@link #setFirstClick(FirstClick)} the first reveal of a board can be made safe, or made to land on a zero. Any
+ * mine in the way is moved to a random free cell and the neighbor counts are patched around the old and the new cell
+ * only, so protecting the first click costs the same on any size of board. The cells a mine moves to are drawn from a
+ * stream seeded by the board's seed and the cell clicked, so the board ID, the mode and the first click still
+ * reproduce the board exactly.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class MinesEngine {
+
+	/**
+	 * <h3>The possible states of a game</h3>
+	 */
+	public enum State {
+
+		/** The game is in progress */
+		RUNNING,
+
+		/** Every non-mine cell has been revealed */
+		WON,
+
+		/** A mine has been revealed */
+		LOST
+	}
+
+	/**
+	 * <h3>How the first reveal of a board is protected</h3>
+	 */
+	public enum FirstClick {
+
+		/** The first reveal can hit a mine */
+		OFF,
+
+		/** The first reveal is never a mine */
+		SAFE,
+
+		/** The first reveal is never a mine nor next to one, so it always opens an area [falls back to SAFE on boards too full for it] */
+		ZERO
+	}
+
+	/* A value of 9 denotes a mine within neighborMines */
+	public static final int MINE = 9;
+
+	/* Layout of a cell packed by writeCells [the low bits hold neighborMines, so a mine is a count of MINE] */
+	static final int CELL_COUNT		= 0x0F;
+	static final int CELL_FLAGGED	= 0x10;
+	static final int CELL_REVEALED	= 0x20;
+
+	/* Number of cells packed or unpacked at a time */
+	private static final int CELL_BLOCK = 1 << 16;
+
+	/* Number of random cells tried when moving a mine before falling back to scanning the board */
+	private static final int RELOCATE_ATTEMPTS = 64;
+
+	/* Total number of rows and columns */
+	private final int ROWS;
+	private final int COLS;
+
+	/* Total number of cells */
+	private final int CELLS;
+
+	/* Total number of mines */
+	private final int TOTAL_MINES;
+
+	/* Total number of flags placed by the player */
+	private int totalFlags = 0;
+
+	/* Number of non-mine cells that have not been revealed yet [the game is won when this reaches zero] */
+	private int safeCellsRemaining;
+
+	/* Stores the number of neighboring mines for each cell */
+	private byte[] neighborMines;
+
+	/* Stores the number of flagged neighbors of each cell */
+	private byte[] flaggedNeighbors;
+
+	/* Stores the mines, flags, and revealed cells */
+	private boolean[] isMined;
+	private boolean[] isFlagged;
+	private boolean[] isRevealed;
+
+	/* Worklist of cell indices used by floodFill [grown on demand, a cell is pushed at most once so it never exceeds CELLS] */
+	private int[] floodStack = new int[64];
+
+	/* Indices of the cells changed by the last move [grown on demand] */
+	private int[] changedCells = new int[64];
+	private int changedCount = 0;
+
+	/* The current state of the game */
+	private State state = State.RUNNING;
+
+	/* How the first reveal of a board is protected */
+	private FirstClick firstClick = FirstClick.OFF;
+
+	/* Whether no cell of the board has been revealed yet */
+	private boolean untouched;
+
+	/* The seed the current board was dealt from */
+	private long seed;
+
+	/**
+	 * <h3>Constructs a MinesEngine with the provided dimensions and number of mines and deals the first board</h3>
+	 *
+	 * @param rows  : total number of rows
+	 * @param cols  : total number of columns
+	 * @param mines : total number of mines
+	 *
+	 * @throws IllegalArgumentException {@code if rows < 1 || cols < 1 || mines < 1}
+	 * @throws IllegalArgumentException {@code if mines > (rows * cols)}
+	 */
+	public MinesEngine(int rows, int cols, int mines) {
+		this(rows, cols, mines, newSeed());
+	}
+
+	/**
+	 * <h3>Constructs a MinesEngine with the provided dimensions and number of mines and deals the board of the given seed</h3>
+	 *
+	 * @param rows  : total number of rows
+	 * @param cols  : total number of columns
+	 * @param mines : total number of mines
+	 * @param seed  : the seed to deal the first board from
+	 *
+	 * @throws IllegalArgumentException {@code if rows < 1 || cols < 1 || mines < 1}
+	 * @throws IllegalArgumentException {@code if mines > (rows * cols)}
+	 */
+	public MinesEngine(int rows, int cols, int mines, long seed) {
+
+		/* Exception handling */
+		checkDimensions(rows, cols, mines);
+
+		/* Store row, column, and total mine values */
+		ROWS = rows;
+		COLS = cols;
+		CELLS = rows * cols;
+		TOTAL_MINES = mines;
+
+		/* Deal the first board */
+		reset(seed);
+	}
+
+	/**
+	 * <h3>Constructs a MinesEngine holding a board restored from packed cells, without dealing a new one</h3>
+	 *
+	 * <p>Each packed cell carries its neighbor count as well as its flags, so restoring is a single sequential pass that
+	 * also rebuilds the totals and the state of the game. Used by {@link MinesSave}.</p>
+	 *
+	 * @param rows  : total number of rows
+	 * @param cols  : total number of columns
+	 * @param mines : total number of mines
+	 * @param seed  : the seed the board was dealt from
+	 * @param cells : {@code rows * cols} bytes, one per cell in index order, as written by {@link #writeCells(ByteBuffer)}
+	 *
+	 * @throws IllegalArgumentException {@code if the dimensions are invalid, or the cells are malformed or do not hold exactly 'mines' mines}
+	 */
+	MinesEngine(int rows, int cols, int mines, long seed, ByteBuffer cells) {
+
+		/* Exception handling */
+		checkDimensions(rows, cols, mines);
+
+		/* Store row, column, and total mine values */
+		ROWS = rows;
+		COLS = cols;
+		CELLS = rows * cols;
+		TOTAL_MINES = mines;
+		this.seed = seed;
+
+		/* Unpack every cell one block at a time, rebuilding the totals as we go */
+		neighborMines = new byte[CELLS];
+		flaggedNeighbors = new byte[CELLS];
+		isMined = new boolean[CELLS];
+		isFlagged = new boolean[CELLS];
+		isRevealed = new boolean[CELLS];
+		byte[] block = new byte[CELL_BLOCK];
+		int placedMines = 0;
+		for (int from = 0;from < CELLS;from += CELL_BLOCK) {
+			int count = Math.min(CELL_BLOCK, CELLS - from);
+			cells.get(block, 0, count);
+			placedMines += readCells(block, from, count);
+		}
+		if (placedMines != mines) {
+			throw new IllegalArgumentException("MinesEngine - MinesEngine() : the cells hold " + placedMines + " mines instead of " + mines);
+		}
+
+		/* If every safe cell had been revealed, the game was won */
+		if (state == State.RUNNING && safeCellsRemaining == 0) {
+			state = State.WON;
+		}
+
+		/* The first reveal is still to come if no cell was revealed */
+		untouched = state == State.RUNNING && safeCellsRemaining == CELLS - mines;
+	}
+
+	/**
+	 * <h3>Constructs a MinesEngine that deals the board described by a board ID</h3>
+	 *
+	 * @param boardId : a board ID as returned by {@link #getBoardId()}
+	 *
+	 * @return A new MinesEngine holding the described board
+	 *
+	 * @throws IllegalArgumentException {@code if boardId is not a valid board ID}
+	 */
+	public static MinesEngine fromBoardId(String boardId) {
+
+		/* Split "<rows>x<cols>x<mines>-<seed>" into its parts */
+		String[] parts = boardId.trim().split("[x-]");
+		if (parts.length != 4) {
+			throw new IllegalArgumentException("MinesEngine - fromBoardId() : \"" + boardId + "\" is not of the form <rows>x<cols>x<mines>-<seed>");
+		}
+
+		/* Parse each part and deal the board */
+		try {
+			return new MinesEngine(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Long.parseUnsignedLong(parts[3], 16));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("MinesEngine - fromBoardId() : \"" + boardId + "\" is not of the form <rows>x<cols>x<mines>-<seed>", e);
+		}
+	}
+
+	/**
+	 * <h3>Resets the engine to a freshly dealt board from a new random seed</h3>
+	 */
+	public void reset() {
+		reset(newSeed());
+	}
+
+	/**
+	 * <h3>Resets the engine to the board dealt from the given seed</h3>
+	 *
+	 * <p>The per-cell arrays are allocated by the first deal and cleared in place by every later one, so dealing board
+	 * after board on the same engine allocates nothing.</p>
+	 *
+	 * @param seed : the seed to deal the board from
+	 */
+	public void reset(long seed) {
+
+		/* Store the seed of this board */
+		this.seed = seed;
+
+		/* Clear flaged and revealed cells, and the flagged neighbor counts */
+		if (isFlagged == null) {
+			isFlagged = new boolean[CELLS];
+			isRevealed = new boolean[CELLS];
+			flaggedNeighbors = new byte[CELLS];
+		} else {
+			Arrays.fill(isFlagged, false);
+			Arrays.fill(isRevealed, false);
+			Arrays.fill(flaggedNeighbors, (byte) 0);
+		}
+
+		/* Reset the total number of flags, the number of safe cells left to reveal and the changed cells */
+		totalFlags = 0;
+		changedCount = 0;
+		safeCellsRemaining = CELLS - TOTAL_MINES;
+
+		/* Generate new random mines */
+		newRandomMines(TOTAL_MINES, new SplittableRandom(seed));
+
+		/* Count all the neighboring mines */
+		countAllNeighborMines();
+
+		/* Start the game again */
+		state = State.RUNNING;
+		untouched = true;
+	}
+
+	/**
+	 * <h3>Exchanges the whole board with another engine of the same size</h3>
+	 *
+	 * <p>Only the references to the per-cell arrays and the counters are swapped, so this takes constant time whatever
+	 * the size of the board. The other engine is left holding this engine's old board and buffers, ready to be reset and
+	 * swapped in again. Neither engine may be in use by another thread while they are swapped.</p>
+	 *
+	 * @param other : The engine holding the board to take
+	 *
+	 * @throws IllegalArgumentException {@code if the other engine's dimensions or number of mines differ}
+	 */
+	public void swapBoard(MinesEngine other) {
+
+		/* Exception handling */
+		if (other.ROWS != ROWS || other.COLS != COLS || other.TOTAL_MINES != TOTAL_MINES) {
+			throw new IllegalArgumentException("MinesEngine - swapBoard() : the other engine's board is not " + ROWS + "x" + COLS + "x" + TOTAL_MINES);
+		}
+
+		/* Swap the per-cell arrays */
+		byte[] neighborMines = this.neighborMines;
+		this.neighborMines = other.neighborMines;
+		other.neighborMines = neighborMines;
+		byte[] flaggedNeighbors = this.flaggedNeighbors;
+		this.flaggedNeighbors = other.flaggedNeighbors;
+		other.flaggedNeighbors = flaggedNeighbors;
+		boolean[] isMined = this.isMined;
+		this.isMined = other.isMined;
+		other.isMined = isMined;
+		boolean[] isFlagged = this.isFlagged;
+		this.isFlagged = other.isFlagged;
+		other.isFlagged = isFlagged;
+		boolean[] isRevealed = this.isRevealed;
+		this.isRevealed = other.isRevealed;
+		other.isRevealed = isRevealed;
+
+		/* Swap the counters, state and seed */
+		int totalFlags = this.totalFlags;
+		this.totalFlags = other.totalFlags;
+		other.totalFlags = totalFlags;
+		int safeCellsRemaining = this.safeCellsRemaining;
+		this.safeCellsRemaining = other.safeCellsRemaining;
+		other.safeCellsRemaining = safeCellsRemaining;
+		State state = this.state;
+		this.state = other.state;
+		other.state = state;
+		long seed = this.seed;
+		this.seed = other.seed;
+		other.seed = seed;
+		boolean untouched = this.untouched;
+		this.untouched = other.untouched;
+		other.untouched = untouched;
+
+		/* Neither board has been moved on since the swap */
+		changedCount = 0;
+		other.changedCount = 0;
+	}
+
+	/**
+	 * <h3>Packs every cell into one byte (neighbor count, flagged and revealed bits) and writes them to a buffer</h3>
+	 *
+	 * <p>Cells are packed a block at a time into a scratch array that is then bulk copied, so a memory-mapped buffer
+	 * receives the whole board as a handful of large copies.</p>
+	 *
+	 * @param out : The buffer to write {@code rows * cols} bytes to, in cell index order
+	 */
+	void writeCells(ByteBuffer out) {
+		byte[] block = new byte[CELL_BLOCK];
+		for (int from = 0;from < CELLS;from += CELL_BLOCK) {
+			int count = Math.min(CELL_BLOCK, CELLS - from);
+			for (int i = 0;i < count;++i) {
+				int cell = from + i;
+				block[i] = (byte) (neighborMines[cell] | (isFlagged[cell] ? CELL_FLAGGED : 0) | (isRevealed[cell] ? CELL_REVEALED : 0));
+			}
+			out.put(block, 0, count);
+		}
+	}
+
+	/**
+	 * <h3>Unpacks a block of cells written by {@link #writeCells(ByteBuffer)}, adding them to the totals</h3>
+	 *
+	 * @param block : The packed cells
+	 * @param from  : The index of the first cell in the block
+	 * @param count : The number of cells in the block
+	 *
+	 * @return The number of mines in the block
+	 *
+	 * @throws IllegalArgumentException {@code if a packed cell is malformed}
+	 */
+	private int readCells(byte[] block, int from, int count) {
+
+		/* Tracks the number of mines found */
+		int mines = 0;
+
+		/* For every cell in the block */
+		for (int i = 0;i < count;++i) {
+
+			/* Check the packed value is well formed */
+			int cell = from + i;
+			int packed = block[i];
+			if ((packed & CELL_COUNT) > MINE || (packed & ~(CELL_COUNT | CELL_FLAGGED | CELL_REVEALED)) != 0) {
+				throw new IllegalArgumentException("MinesEngine - MinesEngine() : cell " + cell + " holds the malformed value " + packed);
+			}
+
+			/* Unpack the cell */
+			neighborMines[cell] = (byte) (packed & CELL_COUNT);
+			isMined[cell] = (packed & CELL_COUNT) == MINE;
+			isFlagged[cell] = (packed & CELL_FLAGGED) != 0;
+			isRevealed[cell] = (packed & CELL_REVEALED) != 0;
+
+			/* Add it to the totals, a revealed mine means the game was lost */
+			if (isMined[cell]) {
+				++mines;
+				if (isRevealed[cell]) {
+					state = State.LOST;
+				}
+			} else if (!isRevealed[cell]) {
+				++safeCellsRemaining;
+			}
+			if (isFlagged[cell]) {
+				++totalFlags;
+				addFlaggedNeighbor(cell, 1);
+			}
+		}
+
+		/* Return the total */
+		return mines;
+	}
+
+	/**
+	 * <h3>Reveals the specified cell, flood filling if it has no neighboring mines</h3>
+	 *
+	 * <p>Does nothing if the game is not running, or if the cell is flagged or already revealed.</p>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return The state of the game after the move
+	 */
+	public State reveal(int row, int col) {
+
+		/* Exception handling */
+		checkBounds(row, col);
+
+		/* Forget the cells changed by the previous move */
+		changedCount = 0;
+
+		/* If the game is over, or the selected cell is flagged or already revealed, do nothing and return */
+		int cell = row * COLS + col;
+		if (state != State.RUNNING || isFlagged[cell] || isRevealed[cell]) {
+			return state;
+		}
+
+		/* If this is the first reveal of the board, move any mine out of its way */
+		if (untouched) {
+			untouched = false;
+			if (firstClick != FirstClick.OFF) {
+				protectFirstClick(row, col);
+			}
+		}
+
+		/* If the selected cell contains a mine, reveal and end the game */
+		if (isMined[cell]) {
+			isRevealed[cell] = true;
+			recordChange(cell);
+			state = State.LOST;
+		}
+
+		/* If the selected cell has at least one neighbor, reveal and check for victory */
+		else if (neighborMines[cell] != 0) {
+			isRevealed[cell] = true;
+			--safeCellsRemaining;
+			recordChange(cell);
+			checkForVictory();
+		}
+
+		/* If the selected cell has no neighbors, flood fill and check for victory */
+		else {
+			floodFill(row, col);
+			checkForVictory();
+		}
+
+		return state;
+	}
+
+	/**
+	 * <h3>Places a flag at the specified cell if the cell is unrevealed and doesn't already contain a flag</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if a flag was placed, {@code false} otherwise
+	 */
+	public boolean flag(int row, int col) {
+
+		/* Exception handling */
+		checkBounds(row, col);
+
+		/* Forget the cells changed by the previous move */
+		changedCount = 0;
+
+		/* If the game is over, or the selected cell is revealed or already contains a flag, do nothing and return */
+		int cell = row * COLS + col;
+		if (state != State.RUNNING || isRevealed[cell] || isFlagged[cell]) {
+			return false;
+		}
+
+		/* Place a flag at this cell */
+		isFlagged[cell] = true;
+		++totalFlags;
+		addFlaggedNeighbor(cell, 1);
+		recordChange(cell);
+		return true;
+	}
+
+	/**
+	 * <h3>Removes a flag from the specified cell if the cell contains a flag</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if a flag was removed, {@code false} otherwise
+	 */
+	public boolean unflag(int row, int col) {
+
+		/* Exception handling */
+		checkBounds(row, col);
+
+		/* Forget the cells changed by the previous move */
+		changedCount = 0;
+
+		/* If the game is over, or the selected cell does not contain a flag, do nothing and return */
+		int cell = row * COLS + col;
+		if (state != State.RUNNING || !isFlagged[cell]) {
+			return false;
+		}
+
+		/* Remove the flag at this cell */
+		isFlagged[cell] = false;
+		--totalFlags;
+		addFlaggedNeighbor(cell, -1);
+		recordChange(cell);
+		return true;
+	}
+
+	/**
+	 * <h3>Chords the specified cell: reveals all of its unflagged neighbors if it is a number with that many flags around it</h3>
+	 *
+	 * <p>Does nothing if the game is not running, or if the cell is hidden, has no neighboring mines, or does not have
+	 * exactly as many flagged neighbors as neighboring mines. Checking this is constant time, and every hidden neighbor is
+	 * then revealed as if clicked, so a misplaced flag loses the game. All the cells opened count as one move.</p>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return The state of the game after the move
+	 */
+	public State chord(int row, int col) {
+
+		/* Exception handling */
+		checkBounds(row, col);
+
+		/* Forget the cells changed by the previous move */
+		changedCount = 0;
+
+		/* If the game is over, or the selected cell is not a revealed number whose flags match it, do nothing and return */
+		int cell = row * COLS + col;
+		if (state != State.RUNNING || !isRevealed[cell] || neighborMines[cell] == 0 || flaggedNeighbors[cell] != neighborMines[cell]) {
+			return state;
+		}
+
+		/* Determine the bounds of the 3x3 neighborhood, clipped to the board */
+		int rowMin = Math.max(row - 1, 0);
+		int rowMax = Math.min(row + 1, ROWS - 1);
+		int colMin = Math.max(col - 1, 0);
+		int colMax = Math.min(col + 1, COLS - 1);
+
+		/* Reveal every neighbor that is neither flagged nor revealed yet */
+		for (int nr = rowMin;nr <= rowMax;++nr) {
+			for (int nc = colMin;nc <= colMax;++nc) {
+				int neighbor = nr * COLS + nc;
+				if (isFlagged[neighbor] || isRevealed[neighbor]) {
+					continue;
+				}
+
+				/* A mine under a missing flag is revealed and ends the game, the other neighbors are still opened */
+				if (isMined[neighbor]) {
+					isRevealed[neighbor] = true;
+					recordChange(neighbor);
+					state = State.LOST;
+				}
+
+				/* A number is revealed on its own, a zero flood fills */
+				else if (neighborMines[neighbor] != 0) {
+					isRevealed[neighbor] = true;
+					--safeCellsRemaining;
+					recordChange(neighbor);
+				} else {
+					floodFill(nr, nc);
+				}
+			}
+		}
+
+		/* Unless a mine was hit, check for victory */
+		if (state == State.RUNNING) {
+			checkForVictory();
+		}
+
+		return state;
+	}
+
+	/**
+	 * <h3>Applies every move of a batch in order, collecting the cells they change into the batch</h3>
+	 *
+	 * <p>Every move is checked before any is applied, so a batch holding an invalid move changes nothing. Moves are
+	 * applied until one ends the game, and those after it are ignored. The changed cells of the last move applied are
+	 * also available through {@link #getChangedCount()} as usual, and none are if no move was applied.</p>
+	 *
+	 * @param batch : The moves, which also receives the result
+	 *
+	 * @return The state of the game after the moves
+	 *
+	 * @throws IllegalArgumentException {@code if a move has an unknown type}
+	 * @throws IndexOutOfBoundsException {@code if a move's cell lies outside the board}
+	 */
+	public State applyMoves(MoveBatch batch) {
+
+		/* Exception handling */
+		int moves = batch.getMoveCount();
+		byte[] types = batch.types();
+		int[] cells = batch.cells();
+		for (int i = 0;i < moves;++i) {
+			if (types[i] != MoveLog.REVEAL && types[i] != MoveLog.FLAG && types[i] != MoveLog.UNFLAG && types[i] != MoveLog.CHORD) {
+				throw new IllegalArgumentException("MinesEngine - applyMoves() : move " + i + " has the unknown type " + types[i]);
+			}
+			if (cells[i] < 0 || cells[i] >= CELLS) {
+				throw new IndexOutOfBoundsException("MinesEngine - applyMoves() : the cell " + cells[i] + " of move " + i + " lies outside the " + ROWS + "x" + COLS + " board");
+			}
+		}
+
+		/* Apply the moves until the game is over, collecting the cells each one changed [nothing changed if none is applied] */
+		batch.clearResult();
+		changedCount = 0;
+		int applied = 0;
+		while (applied < moves && state == State.RUNNING) {
+			int row = cells[applied] / COLS;
+			int col = cells[applied] - row * COLS;
+			switch (types[applied]) {
+				case MoveLog.REVEAL:	reveal(row, col);	break;
+				case MoveLog.FLAG:		flag(row, col);		break;
+				case MoveLog.UNFLAG:	unflag(row, col);	break;
+				default:				chord(row, col);	break;
+			}
+			for (int i = 0;i < changedCount;++i) {
+				batch.recordChange(changedCells[i], visibleCell(changedCells[i]));
+			}
+			++applied;
+		}
+		batch.finish(applied, state);
+		return state;
+	}
+
+	/**
+	 * <h3>Sets how the first reveal of every board is protected</h3>
+	 *
+	 * <p>Takes effect from the next reveal if no cell of the current board has been revealed yet.</p>
+	 *
+	 * @param firstClick : The protection
+	 */
+	public void setFirstClick(FirstClick firstClick) {
+		this.firstClick = firstClick;
+	}
+
+	/**
+	 * @return How the first reveal of every board is protected
+	 */
+	public FirstClick getFirstClick() {
+		return firstClick;
+	}
+
+	/**
+	 * @return The current state of the game
+	 */
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * @return {@code true} if the game is still in progress, {@code false} otherwise
+	 */
+	public boolean isRunning() {
+		return state == State.RUNNING;
+	}
+
+	/**
+	 * @return The total number of rows
+	 */
+	public int getRows() {
+		return ROWS;
+	}
+
+	/**
+	 * @return The total number of columns
+	 */
+	public int getCols() {
+		return COLS;
+	}
+
+	/**
+	 * @return The total number of mines
+	 */
+	public int getTotalMines() {
+		return TOTAL_MINES;
+	}
+
+	/**
+	 * @return The seed the current board was dealt from
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return The board ID of the current board, of the form {@code <rows>x<cols>x<mines>-<seed in hex>}
+	 */
+	public String getBoardId() {
+		return boardId(ROWS, COLS, TOTAL_MINES, seed);
+	}
+
+	/**
+	 * @param rows  : total number of rows
+	 * @param cols  : total number of columns
+	 * @param mines : total number of mines
+	 * @param seed  : the seed the board is dealt from
+	 *
+	 * @return The board ID of that board, of the form {@code <rows>x<cols>x<mines>-<seed in hex>}
+	 */
+	static String boardId(int rows, int cols, int mines, long seed) {
+		return rows + "x" + cols + "x" + mines + "-" + Long.toHexString(seed);
+	}
+
+	/**
+	 * @return The total number of flags placed by the player
+	 */
+	public int getTotalFlags() {
+		return totalFlags;
+	}
+
+	/**
+	 * @return The number of non-mine cells that have not been revealed yet
+	 */
+	public int getSafeCellsRemaining() {
+		return safeCellsRemaining;
+	}
+
+	/**
+	 * @return The number of cells whose revealed or flagged state was changed by the last move
+	 */
+	public int getChangedCount() {
+		return changedCount;
+	}
+
+	/**
+	 * @param i : The position of the change within the last move, from {@code 0} to {@code getChangedCount() - 1}
+	 *
+	 * @return The index {@code row * cols + col} of the i-th cell changed by the last move
+	 *
+	 * @throws IndexOutOfBoundsException {@code if i < 0 || i >= getChangedCount()}
+	 */
+	public int getChangedCell(int i) {
+		if (i < 0 || i >= changedCount) {
+			throw new IndexOutOfBoundsException("MinesEngine - getChangedCell() : " + i + " lies outside the " + changedCount + " changed cells");
+		}
+		return changedCells[i];
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if the cell contains a mine, {@code false} otherwise
+	 */
+	public boolean isMined(int row, int col) {
+		checkBounds(row, col);
+		return isMined[row * COLS + col];
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if the cell contains a flag, {@code false} otherwise
+	 */
+	public boolean isFlagged(int row, int col) {
+		checkBounds(row, col);
+		return isFlagged[row * COLS + col];
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if the cell has been revealed, {@code false} otherwise
+	 */
+	public boolean isRevealed(int row, int col) {
+		checkBounds(row, col);
+		return isRevealed[row * COLS + col];
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return The number of flagged neighbors of the cell
+	 */
+	public int getFlaggedNeighbors(int row, int col) {
+		checkBounds(row, col);
+		return flaggedNeighbors[row * COLS + col];
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return The number of neighboring mines of the cell, or {@link #MINE} if the cell is a mine
+	 */
+	public int getNeighborMines(int row, int col) {
+		checkBounds(row, col);
+		return neighborMines[row * COLS + col];
+	}
+
+	/**
+	 * @param cell : The index of a cell
+	 *
+	 * @return The cell as the player sees it: its neighbor count and {@link #CELL_REVEALED} once revealed,
+	 *         {@link #CELL_FLAGGED} while flagged, and 0 otherwise
+	 */
+	int visibleCell(int cell) {
+		if (isRevealed[cell]) {
+			return neighborMines[cell] | CELL_REVEALED;
+		}
+		return isFlagged[cell] ? CELL_FLAGGED : 0;
+	}
+
+	/**
+	 * <h3>Performs the flood fill algorithm starting from the provided cell</h3>
+	 *
+	 * <p>Uses an explicit stack of cell indices instead of recursion, so the cost is proportional to the number of cells
+	 * revealed and large empty areas cannot overflow the call stack. Each cell is revealed as it is pushed, so no cell is
+	 * ever pushed twice.</p>
+	 *
+	 * @param row : The row coordinate of the starting cell
+	 * @param col : The column coordinate of the starting cell
+	 */
+	private void floodFill(int row, int col) {
+
+		/* If the selected cell is flagged, do nothing and return */
+		int start = row * COLS + col;
+		if (isFlagged[start]) {
+			return;
+		}
+
+		/* Reveal the starting cell and push it onto the stack */
+		isRevealed[start] = true;
+		--safeCellsRemaining;
+		recordChange(start);
+		int size = 0;
+		floodStack[size++] = start;
+
+		/* Until every cell with no neighboring mines has had its neighbors cleared */
+		while (size > 0) {
+
+			/* Pop the next cell, only cells with no neighboring mines spread further */
+			int cell = floodStack[--size];
+			if (neighborMines[cell] != 0) {
+				continue;
+			}
+
+			/* Determine the bounds of the 3x3 neighborhood, clipped to the board */
+			int r = cell / COLS;
+			int c = cell - r * COLS;
+			int rowMin = Math.max(r - 1, 0);
+			int rowMax = Math.min(r + 1, ROWS - 1);
+			int colMin = Math.max(c - 1, 0);
+			int colMax = Math.min(c + 1, COLS - 1);
+
+			/* For every neighbor that is not a mine, not flagged, and not yet revealed, reveal and push it */
+			for (int nr = rowMin;nr <= rowMax;++nr) {
+				for (int nc = colMin;nc <= colMax;++nc) {
+					int neighbor = nr * COLS + nc;
+					if (!isMined[neighbor] && !isFlagged[neighbor] && !isRevealed[neighbor]) {
+						isRevealed[neighbor] = true;
+						--safeCellsRemaining;
+						recordChange(neighbor);
+						if (size == floodStack.length) {
+							floodStack = Arrays.copyOf(floodStack, Math.min(size * 2, CELLS));
+						}
+						floodStack[size++] = neighbor;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * <h3>Checks for victory by verifying if every non-mine cell has been revealed</h3>
+	 *
+	 * <p>Runs in constant time off the safe cell counter maintained by the reveal path. {@link MinesEngineCheck}
+	 * cross-checks the counter against a full scan of the board over many random games. Package-private so that
+	 * EngineBridge can benchmark it on its own.</p>
+	 */
+	void checkForVictory() {
+
+		/* If we have revealed every non-mine cell, declare victory */
+		if (safeCellsRemaining == 0) {
+			state = State.WON;
+		}
+	}
+
+	/**
+	 * <h3>Randomly places a defined number of mines on the game board</h3>
+	 *
+	 * <p>Uses Floyd's sampling algorithm over cell indices, with the mine array itself as the set of chosen cells. Every
+	 * iteration places exactly one mine, so the cost is bounded by the number of mines however densely the board is mined,
+	 * and every set of cells is equally likely. Package-private so that EngineBridge can benchmark it on its own.</p>
+	 *
+	 * @param mines  : The total number of mines to be placed
+	 * @param random : The source of randomness to place them with
+	 */
+	void newRandomMines(int mines, SplittableRandom random) {
+
+		/* Clear any previous mines */
+		if (isMined == null) {
+			isMined = new boolean[CELLS];
+		} else {
+			Arrays.fill(isMined, false);
+		}
+
+		/* For each of the last 'mines' cell indices */
+		for (int last = CELLS - mines;last < CELLS;++last) {
+
+			/* Pick a random cell up to and including this index, if it is already mined, mine this index instead */
+			int cell = random.nextInt(last + 1);
+			isMined[isMined[cell] ? last : cell] = true;
+		}
+	}
+
+	/**
+	 * <h3>Moves the mines out of the way of the first reveal</h3>
+	 *
+	 * <p>Clears the clicked cell, and for {@link FirstClick#ZERO} its whole 3x3 neighborhood, if the rest of the board
+	 * has room for the mines moved out of it. Only the mines in that area are moved, so the cost does not depend on the
+	 * size of the board.</p>
+	 *
+	 * @param row : The row coordinate of the first reveal
+	 * @param col : The column coordinate of the first reveal
+	 */
+	private void protectFirstClick(int row, int col) {
+
+		/* Clear the 3x3 neighborhood for ZERO, or the cell alone for SAFE */
+		int radius = (firstClick == FirstClick.ZERO) ? 1 : 0;
+		int rowMin = Math.max(row - radius, 0);
+		int rowMax = Math.min(row + radius, ROWS - 1);
+		int colMin = Math.max(col - radius, 0);
+		int colMax = Math.min(col + radius, COLS - 1);
+
+		/* Count the mines in the area, if the free cells outside it cannot take them, clear the cell alone */
+		int area = (rowMax - rowMin + 1) * (colMax - colMin + 1);
+		int mines = 0;
+		for (int r = rowMin;r <= rowMax;++r) {
+			for (int c = colMin;c <= colMax;++c) {
+				if (isMined[r * COLS + c]) {
+					++mines;
+				}
+			}
+		}
+		if (CELLS - TOTAL_MINES - (area - mines) < mines) {
+			if (radius == 0 || CELLS == TOTAL_MINES) {
+				return;
+			}
+			rowMin = rowMax = row;
+			colMin = colMax = col;
+		}
+
+		/* Move every mine in the area to a free cell outside it, drawn from a stream tied to this board and click */
+		SplittableRandom random = new SplittableRandom(seed ^ (0x9E3779B97F4A7C15L * (row * COLS + col + 1)));
+		for (int r = rowMin;r <= rowMax;++r) {
+			for (int c = colMin;c <= colMax;++c) {
+				int cell = r * COLS + c;
+				if (isMined[cell]) {
+					removeMine(cell);
+					placeMine(freeCell(random, rowMin, rowMax, colMin, colMax));
+				}
+			}
+		}
+	}
+
+	/**
+	 * <h3>Picks a random cell that is neither mined nor inside an area</h3>
+	 *
+	 * <p>Tries random cells first, which almost always finds one quickly, and only scans the board from a random start on
+	 * boards so full that random cells keep missing. The caller makes sure such a cell exists.</p>
+	 *
+	 * @param random : The source of randomness
+	 * @param rowMin : The first row of the area
+	 * @param rowMax : The last row of the area
+	 * @param colMin : The first column of the area
+	 * @param colMax : The last column of the area
+	 *
+	 * @return The index of the cell
+	 */
+	private int freeCell(SplittableRandom random, int rowMin, int rowMax, int colMin, int colMax) {
+
+		/* Try random cells */
+		for (int attempt = 0;attempt < RELOCATE_ATTEMPTS;++attempt) {
+			int cell = random.nextInt(CELLS);
+			if (isFree(cell, rowMin, rowMax, colMin, colMax)) {
+				return cell;
+			}
+		}
+
+		/* Otherwise scan from a random start */
+		int start = random.nextInt(CELLS);
+		for (int i = 0;i < CELLS;++i) {
+			int cell = (start + i) % CELLS;
+			if (isFree(cell, rowMin, rowMax, colMin, colMax)) {
+				return cell;
+			}
+		}
+		throw new IllegalStateException("MinesEngine - freeCell() : no free cell left outside the first click");
+	}
+
+	/**
+	 * @param cell   : The index of a cell
+	 * @param rowMin : The first row of the area
+	 * @param rowMax : The last row of the area
+	 * @param colMin : The first column of the area
+	 * @param colMax : The last column of the area
+	 *
+	 * @return {@code true} if the cell is not mined and lies outside the area
+	 */
+	private boolean isFree(int cell, int rowMin, int rowMax, int colMin, int colMax) {
+		int row = cell / COLS;
+		int col = cell - row * COLS;
+		return !isMined[cell] && (row < rowMin || row > rowMax || col < colMin || col > colMax);
+	}
+
+	/**
+	 * <h3>Takes the mine off a cell, patching the neighbor counts of its 3x3 neighborhood</h3>
+	 *
+	 * @param cell : The index of a mined cell
+	 */
+	private void removeMine(int cell) {
+
+		/* Determine the bounds of the 3x3 neighborhood, clipped to the board */
+		int row = cell / COLS;
+		int col = cell - row * COLS;
+		int rowMin = Math.max(row - 1, 0);
+		int rowMax = Math.min(row + 1, ROWS - 1);
+		int colMin = Math.max(col - 1, 0);
+		int colMax = Math.min(col + 1, COLS - 1);
+
+		/* Take the mine off, count the mines around the cell and take one off every safe neighbor */
+		isMined[cell] = false;
+		int count = 0;
+		for (int nr = rowMin;nr <= rowMax;++nr) {
+			for (int nc = colMin;nc <= colMax;++nc) {
+				int neighbor = nr * COLS + nc;
+				if (isMined[neighbor]) {
+					++count;
+				} else if (neighbor != cell) {
+					--neighborMines[neighbor];
+				}
+			}
+		}
+		neighborMines[cell] = (byte) count;
+	}
+
+	/**
+	 * <h3>Puts a mine on a cell, patching the neighbor counts of its 3x3 neighborhood</h3>
+	 *
+	 * @param cell : The index of a cell without a mine
+	 */
+	private void placeMine(int cell) {
+
+		/* Determine the bounds of the 3x3 neighborhood, clipped to the board */
+		int row = cell / COLS;
+		int col = cell - row * COLS;
+		int rowMin = Math.max(row - 1, 0);
+		int rowMax = Math.min(row + 1, ROWS - 1);
+		int colMin = Math.max(col - 1, 0);
+		int colMax = Math.min(col + 1, COLS - 1);
+
+		/* Put the mine on and add one to every safe neighbor */
+		isMined[cell] = true;
+		neighborMines[cell] = MINE;
+		for (int nr = rowMin;nr <= rowMax;++nr) {
+			for (int nc = colMin;nc <= colMax;++nc) {
+				int neighbor = nr * COLS + nc;
+				if (!isMined[neighbor]) {
+					++neighborMines[neighbor];
+				}
+			}
+		}
+	}
+
+	/**
+	 * <h3>Adds to the flagged neighbor count of every neighbor of a cell whose flag changed</h3>
+	 *
+	 * @param cell  : The index of the cell
+	 * @param delta : {@code 1} if the cell was flagged, {@code -1} if its flag was removed
+	 */
+	private void addFlaggedNeighbor(int cell, int delta) {
+
+		/* Determine the bounds of the 3x3 neighborhood, clipped to the board */
+		int row = cell / COLS;
+		int col = cell - row * COLS;
+		int rowMin = Math.max(row - 1, 0);
+		int rowMax = Math.min(row + 1, ROWS - 1);
+		int colMin = Math.max(col - 1, 0);
+		int colMax = Math.min(col + 1, COLS - 1);
+
+		/* Add to every neighbor, the cell itself is not its own neighbor */
+		for (int nr = rowMin;nr <= rowMax;++nr) {
+			for (int nc = colMin;nc <= colMax;++nc) {
+				flaggedNeighbors[nr * COLS + nc] += delta;
+			}
+		}
+		flaggedNeighbors[cell] -= delta;
+	}
+
+	/**
+	 * <h3>Records that the last move changed the given cell</h3>
+	 *
+	 * @param cell : The index of the changed cell
+	 */
+	private void recordChange(int cell) {
+		if (changedCount == changedCells.length) {
+			changedCells = Arrays.copyOf(changedCells, Math.min(changedCount * 2, CELLS));
+		}
+		changedCells[changedCount++] = cell;
+	}
+
+	/**
+	 * <h3>Generates a new random seed</h3>
+	 *
+	 * @return A new random seed
+	 */
+	private static long newSeed() {
+		return ThreadLocalRandom.current().nextLong();
+	}
+
+	/**
+	 * <h3>Counts and updates the number of neighboring mines for each cell</h3>
+	 *
+	 * <p>Runs in a single pass over the board: every mine stamps +1 onto each of its non-mine neighbors, so the cost is
+	 * {@code O(cells + 8 * mines)} rather than a whole-board scan per cell. Package-private so that EngineBridge can
+	 * benchmark it on its own.</p>
+	 */
+	void countAllNeighborMines() {
+
+		/* Clear any previous neighbor values */
+		if (neighborMines == null) {
+			neighborMines = new byte[CELLS];
+		} else {
+			Arrays.fill(neighborMines, (byte) 0);
+		}
+
+		/* For every cell */
+		for (int row = 0;row < ROWS;++row) {
+			for (int col = 0;col < COLS;++col) {
+
+				/* Only mines contribute to the counts */
+				int cell = row * COLS + col;
+				if (!isMined[cell]) {
+					continue;
+				}
+
+				/* Assign the neighbor value of the mine itself to MINE */
+				neighborMines[cell] = MINE;
+
+				/* Determine the bounds of the 3x3 neighborhood, clipped to the board */
+				int rowMin = Math.max(row - 1, 0);
+				int rowMax = Math.min(row + 1, ROWS - 1);
+				int colMin = Math.max(col - 1, 0);
+				int colMax = Math.min(col + 1, COLS - 1);
+
+				/* Stamp +1 onto every neighbor that is not itself a mine */
+				for (int nr = rowMin;nr <= rowMax;++nr) {
+					for (int nc = colMin;nc <= colMax;++nc) {
+						int neighbor = nr * COLS + nc;
+						if (!isMined[neighbor]) {
+							++neighborMines[neighbor];
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * <h3>Checks that the given dimensions and number of mines describe a valid board</h3>
+	 *
+	 * <p>Package-private so that callers can validate a configuration without allocating a board.</p>
+	 *
+	 * @param rows  : total number of rows
+	 * @param cols  : total number of columns
+	 * @param mines : total number of mines
+	 *
+	 * @throws IllegalArgumentException {@code if rows < 1 || cols < 1 || mines < 1}
+	 * @throws IllegalArgumentException {@code if (rows * cols) > Integer.MAX_VALUE}
+	 * @throws IllegalArgumentException {@code if mines > (rows * cols)}
+	 */
+	static void checkDimensions(int rows, int cols, int mines) {
+		if (rows < 1)                       throw new IllegalArgumentException("MinesEngine - MinesEngine() : rows < 1 returned true");
+		if (cols < 1)                       throw new IllegalArgumentException("MinesEngine - MinesEngine() : cols < 1 returned true");
+		if (mines < 1)                      throw new IllegalArgumentException("MinesEngine - MinesEngine() : mines < 1 returned true");
+		if ((long) rows * cols > Integer.MAX_VALUE) throw new IllegalArgumentException("MinesEngine - MinesEngine() : (rows * cols) > Integer.MAX_VALUE returned true");
+		if (mines > (rows * cols))          throw new IllegalArgumentException("MinesEngine - MinesEngine() : mines > (rows * cols) returned true [attempting to add more mines than there are available cells]");
+	}
+
+	/**
+	 * <h3>Checks that the given coordinates lie on the board</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @throws IndexOutOfBoundsException {@code if row or col lies outside the board}
+	 */
+	private void checkBounds(int row, int col) {
+		if (row < 0 || row >= ROWS || col < 0 || col >= COLS) {
+			throw new IndexOutOfBoundsException("MinesEngine - checkBounds() : (" + row + ", " + col + ") lies outside the " + ROWS + "x" + COLS + " board");
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+import java.util.SplittableRandom;
+
+/**
+ * <h1>MinesEngineCheck - Consistency check of MinesEngine's counters over random games</h1>
+ *
+ * <p>Plays many games on random board sizes and mine counts with random moves: reveals, flags, unflags and chords of
+ * random cells, with first-click protection switched at random. After every move it scans the whole board and checks
+ * that the safe cell counter the victory check relies on and the flag counter agree with it, and that the game is won
+ * exactly when no safe cell is left hidden. It stops at the first game that fails.</p>
+ *
+ * <p>Run with {@code java MinesEngineCheck [games] [seed]}. By default 10,000 games are played from seed 1.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class MinesEngineCheck {
+
+	/* Largest number of rows and columns of a board */
+	private static final int MAX_SIZE = 64;
+
+	/* Out of every 16 moves, how many are flags, unflags and chords [the rest are reveals] */
+	private static final int FLAGS_IN_16 = 3;
+	private static final int UNFLAGS_IN_16 = 1;
+	private static final int CHORDS_IN_16 = 4;
+
+	/**
+	 * <h3>MinesEngineCheck is not meant to be instantiated</h3>
+	 */
+	private MinesEngineCheck() {
+	}
+
+	/**
+	 * <h3>Plays random games and checks the engine after every move</h3>
+	 *
+	 * @param games : The number of games
+	 * @param seed  : The seed of the boards and moves
+	 *
+	 * @return {@code true} if every game passed
+	 */
+	static boolean check(int games, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		MinesEngine.FirstClick[] firstClicks = MinesEngine.FirstClick.values();
+		long moves = 0;
+		for (int game = 0;game < games;++game) {
+
+			/* Deal a random board with at least one mine and one safe cell */
+			int rows = 1 + random.nextInt(MAX_SIZE);
+			int cols = 2 + random.nextInt(MAX_SIZE - 1);
+			int mines = 1 + random.nextInt(rows * cols - 1);
+			MinesEngine engine = new MinesEngine(rows, cols, mines, random.nextLong());
+			engine.setFirstClick(firstClicks[random.nextInt(firstClicks.length)]);
+
+			/* Play random moves until the game is over, checking the board after each one */
+			String failure = check(engine);
+			while (failure == null && engine.isRunning()) {
+				int row = random.nextInt(rows);
+				int col = random.nextInt(cols);
+				int roll = random.nextInt(16);
+				if (roll < FLAGS_IN_16) {
+					engine.flag(row, col);
+				} else if (roll < FLAGS_IN_16 + UNFLAGS_IN_16) {
+					engine.unflag(row, col);
+				} else if (roll < FLAGS_IN_16 + UNFLAGS_IN_16 + CHORDS_IN_16) {
+					engine.chord(row, col);
+				} else {
+					engine.reveal(row, col);
+				}
+				++moves;
+				failure = check(engine);
+			}
+			if (failure != null) {
+				System.out.printf("game %d, board %s : %s%n", game, engine.getBoardId(), failure);
+				return false;
+			}
+		}
+		System.out.printf("%d games, %d moves, all consistent%n", games, moves);
+		return true;
+	}
+
+	/**
+	 * <h3>Checks the engine's counters against a full scan of the board</h3>
+	 *
+	 * @param engine : The engine
+	 *
+	 * @return What is wrong with the engine, or {@code null} if nothing is
+	 */
+	private static String check(MinesEngine engine) {
+
+		/* Count what is on the board */
+		int hiddenSafe = 0;
+		int revealedMines = 0;
+		int flags = 0;
+		for (int row = 0;row < engine.getRows();++row) {
+			for (int col = 0;col < engine.getCols();++col) {
+				if (engine.isRevealed(row, col)) {
+					if (engine.isMined(row, col)) {
+						++revealedMines;
+					}
+				} else if (!engine.isMined(row, col)) {
+					++hiddenSafe;
+				}
+				if (engine.isFlagged(row, col)) {
+					++flags;
+				}
+			}
+		}
+
+		/* The counters must agree with the board */
+		if (engine.getSafeCellsRemaining() != hiddenSafe) {
+			return "the safe cell counter is " + engine.getSafeCellsRemaining() + " but " + hiddenSafe + " safe cells are hidden";
+		}
+		if (engine.getTotalFlags() != flags) {
+			return "the flag counter is " + engine.getTotalFlags() + " but " + flags + " cells are flagged";
+		}
+
+		/* The game is lost once a mine is revealed, and otherwise won exactly when no safe cell is hidden */
+		MinesEngine.State expected = (revealedMines > 0) ? MinesEngine.State.LOST : (hiddenSafe == 0) ? MinesEngine.State.WON : MinesEngine.State.RUNNING;
+		if (engine.getState() != expected) {
+			return "the game is " + engine.getState() + " instead of " + expected;
+		}
+		return null;
+	}
+
+	public static void main(String[] args) {
+
+		/* Parse the arguments */
+		int games = (args.length > 0) ? Integer.parseInt(args[0]) : 10_000;
+		long seed = (args.length > 1) ? Long.parseLong(args[1]) : 1;
+
+		/* Play and check */
+		if (!check(games, seed)) {
+			System.exit(1);
+		}
+	}
+
+}
@@ -0,0 +1,356 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * <h1>MinesLoadClient - Load generator for {@link MinesServer}</h1>
+ *
+ * <p>Opens a number of sessions from one thread over one {@link Selector}, and plays a game on each of them as fast as
+ * the server answers. Every session keeps exactly one request in flight: a reveal of a random cell it has not seen
+ * revealed [with the odd flag and unflag mixed in], and a new board as soon as a game ends, asked for by its index when
+ * it is a preset. Each second it prints the
+ * sessions held, the moves and games completed per second and the round trip percentiles of the moves.</p>
+ *
+ * <p>Run with {@code java MinesLoadClient [sessions] [seconds] [host] [port] [<rows>x<cols>x<mines>]}. By default 1,000
+ * sessions play Expert boards against {@code localhost} for 10 seconds.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class MinesLoadClient {
+
+	/* Out of every 16 moves, how many are flags and how many unflags [the rest are reveals] */
+	private static final int FLAGS_IN_16 = 1;
+	private static final int UNFLAGS_IN_16 = 1;
+
+	/* Number of random cells tried before a reveal falls back to scanning the board */
+	private static final int REVEAL_ATTEMPTS = 64;
+
+	/* The board every session plays, and its index among the presets [-1 for a custom board] */
+	private final Difficulty difficulty;
+	private final int preset;
+
+	/* Round trip times of every move, in nanoseconds */
+	private final Histogram roundTrips = new Histogram();
+
+	/* Totals */
+	private int connected = 0;
+	private int failed = 0;
+	private long moves = 0;
+	private long games = 0;
+
+	/**
+	 * <h3>A connection and the game it is playing</h3>
+	 */
+	private final class Session {
+
+		/* The connection */
+		private final SocketChannel channel;
+
+		/* The request being sent, and the reply being received */
+		private final ByteBuffer request = ByteBuffer.allocate(MinesServer.GAME_BYTES);
+		private final ByteBuffer reply;
+
+		/* The cells seen revealed on the current board */
+		private final boolean[] revealed;
+
+		/* The session's own random stream */
+		private final SplittableRandom random;
+
+		/* When the request in flight was sent, and whether it is a move */
+		private long sentNanos;
+		private boolean moveInFlight;
+
+		/**
+		 * <h3>Constructs a Session</h3>
+		 *
+		 * @param channel : The connection
+		 * @param random  : The session's own random stream
+		 */
+		private Session(SocketChannel channel, SplittableRandom random) {
+			int cells = difficulty.getRows() * difficulty.getCols();
+			this.channel = channel;
+			this.reply = ByteBuffer.allocate(MinesServer.REPLY_BYTES + cells * MinesServer.CELL_BYTES);
+			this.revealed = new boolean[cells];
+			this.random = random;
+		}
+
+		/**
+		 * <h3>Starts sending a request for a new board</h3>
+		 */
+		private void newGame() {
+			Arrays.fill(revealed, false);
+			request.clear();
+			if (preset >= 0) {
+				request.put(MinesServer.PRESET).putInt(preset).putLong(random.nextLong());
+			} else {
+				request.put(MoveLog.GAME).putInt(difficulty.getRows()).putInt(difficulty.getCols()).putInt(difficulty.getMines()).putLong(random.nextLong());
+			}
+			request.flip();
+			moveInFlight = false;
+		}
+
+		/**
+		 * <h3>Starts sending the next move</h3>
+		 */
+		private void nextMove() {
+			int roll = random.nextInt(16);
+			byte type = (roll < FLAGS_IN_16) ? MoveLog.FLAG : (roll < FLAGS_IN_16 + UNFLAGS_IN_16) ? MoveLog.UNFLAG : MoveLog.REVEAL;
+			request.clear();
+			request.put(type).putInt(hiddenCell());
+			request.flip();
+			moveInFlight = true;
+		}
+
+		/**
+		 * @return A random cell not seen revealed
+		 */
+		private int hiddenCell() {
+
+			/* Try random cells first, which almost always finds one quickly */
+			for (int attempt = 0;attempt < REVEAL_ATTEMPTS;++attempt) {
+				int cell = random.nextInt(revealed.length);
+				if (!revealed[cell]) {
+					return cell;
+				}
+			}
+
+			/* Otherwise scan from a random start [a running game always has a hidden cell] */
+			int start = random.nextInt(revealed.length);
+			for (int i = 0;i < revealed.length;++i) {
+				int cell = (start + i) % revealed.length;
+				if (!revealed[cell]) {
+					return cell;
+				}
+			}
+			return start;
+		}
+	}
+
+	/**
+	 * <h3>Constructs a MinesLoadClient</h3>
+	 *
+	 * @param difficulty : The board every session plays
+	 */
+	public MinesLoadClient(Difficulty difficulty) {
+		this.difficulty = difficulty;
+
+		/* Find the board among the presets */
+		Difficulty[] presets = Difficulty.presets();
+		int preset = -1;
+		for (int i = 0;i < presets.length;++i) {
+			if (presets[i].getRows() == difficulty.getRows() && presets[i].getCols() == difficulty.getCols() && presets[i].getMines() == difficulty.getMines()) {
+				preset = i;
+			}
+		}
+		this.preset = preset;
+	}
+
+	/**
+	 * <h3>Opens the sessions and plays on all of them for a while</h3>
+	 *
+	 * @param address  : The server's address
+	 * @param sessions : The number of sessions to open
+	 * @param seconds  : How long to play for
+	 * @param seed     : The seed every session's random stream is split from
+	 *
+	 * @throws IOException {@code if the selector fails}
+	 */
+	public void run(InetSocketAddress address, int sessions, int seconds, long seed) throws IOException {
+
+		try (Selector selector = Selector.open()) {
+
+			/* Start connecting every session */
+			SplittableRandom master = new SplittableRandom(seed);
+			for (int i = 0;i < sessions;++i) {
+				SocketChannel channel = SocketChannel.open();
+				channel.configureBlocking(false);
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+				Session session = new Session(channel, master.split());
+				if (channel.connect(address)) {
+					connected(selector, session);
+				} else {
+					channel.register(selector, SelectionKey.OP_CONNECT, session);
+				}
+			}
+
+			/* Play until the time is up, reporting every second */
+			System.out.printf("%6s %9s %12s %10s %12s %12s%n", "second", "sessions", "moves/s", "games/s", "p50 us", "p99 us");
+			long tInit = System.nanoTime();
+			long tEnd = tInit + seconds * 1_000_000_000L;
+			long tReport = tInit + 1_000_000_000L;
+			long lastMoves = 0;
+			long lastGames = 0;
+			int second = 0;
+			while (System.nanoTime() < tEnd) {
+				selector.select(Math.max(1, (tReport - System.nanoTime()) / 1_000_000));
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					handle(selector, key);
+				}
+				if (System.nanoTime() >= tReport) {
+					System.out.printf("%6d %9d %12d %10d %12.1f %12.1f%n", ++second, connected, moves - lastMoves, games - lastGames,
+							roundTrips.percentile(0.5) / 1e3, roundTrips.percentile(0.99) / 1e3);
+					roundTrips.reset();
+					lastMoves = moves;
+					lastGames = games;
+					tReport += 1_000_000_000L;
+				}
+			}
+			double elapsed = (System.nanoTime() - tInit) / 1e9;
+			System.out.printf("%d sessions held [%d failed], %d moves [%.0f/s], %d games%n", connected, failed, moves, moves / elapsed, games);
+
+			/* Close every session */
+			for (SelectionKey key : selector.keys()) {
+				key.channel().close();
+			}
+		}
+	}
+
+	/**
+	 * <h3>Handles a ready session, closing it if its connection fails</h3>
+	 *
+	 * @param selector : The selector
+	 * @param key      : The session's key
+	 */
+	private void handle(Selector selector, SelectionKey key) {
+		Session session = (Session) key.attachment();
+		try {
+			if (!key.isValid()) {
+				return;
+			}
+			if (key.isConnectable()) {
+				session.channel.finishConnect();
+				connected(selector, session);
+				return;
+			}
+			if (key.isWritable()) {
+				send(key, session);
+			}
+			if (key.isValid() && key.isReadable()) {
+				receive(key, session);
+			}
+		} catch (IOException e) {
+			if (key.isValid() && (key.interestOps() & SelectionKey.OP_CONNECT) != 0) {
+				++failed;
+			} else {
+				--connected;
+			}
+			key.cancel();
+			try {
+				session.channel.close();
+			} catch (IOException closeFailed) {
+				/* The session is over either way */
+			}
+		}
+	}
+
+	/**
+	 * <h3>Starts a connected session on its first board</h3>
+	 *
+	 * @param selector : The selector
+	 * @param session  : The session
+	 *
+	 * @throws IOException {@code if the connection fails}
+	 */
+	private void connected(Selector selector, Session session) throws IOException {
+		++connected;
+		session.newGame();
+		SelectionKey key = session.channel.register(selector, SelectionKey.OP_WRITE, session);
+		send(key, session);
+	}
+
+	/**
+	 * <h3>Sends as much of the session's request as the connection takes, then waits for the reply</h3>
+	 *
+	 * @param key     : The session's key
+	 * @param session : The session
+	 *
+	 * @throws IOException {@code if the connection fails}
+	 */
+	private void send(SelectionKey key, Session session) throws IOException {
+		if (session.request.position() == 0) {
+			session.sentNanos = System.nanoTime();
+		}
+		session.channel.write(session.request);
+		key.interestOps(session.request.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+	}
+
+	/**
+	 * <h3>Reads the session's reply and, once it is complete, sends its next request</h3>
+	 *
+	 * @param key     : The session's key
+	 * @param session : The session
+	 *
+	 * @throws IOException {@code if the connection fails or the server rejected a request}
+	 */
+	private void receive(SelectionKey key, Session session) throws IOException {
+		ByteBuffer reply = session.reply;
+		if (session.channel.read(reply) < 0) {
+			throw new IOException("MinesLoadClient - receive() : the server closed the connection");
+		}
+
+		/* Wait for the whole reply */
+		if (reply.position() < MinesServer.REPLY_BYTES) {
+			return;
+		}
+		int changed = reply.getInt(2);
+		if (reply.position() < MinesServer.REPLY_BYTES + changed * MinesServer.CELL_BYTES) {
+			return;
+		}
+
+		/* Read it */
+		reply.flip();
+		if (reply.get() != MinesServer.OK) {
+			throw new IOException("MinesLoadClient - receive() : the server rejected a request");
+		}
+		int state = reply.get();
+		reply.getInt();
+		for (int i = 0;i < changed;++i) {
+			int cell = reply.getInt();
+			if ((reply.get() & MinesEngine.CELL_REVEALED) != 0) {
+				session.revealed[cell] = true;
+			}
+		}
+		reply.clear();
+
+		/* Count it */
+		if (session.moveInFlight) {
+			roundTrips.record(System.nanoTime() - session.sentNanos);
+			++moves;
+		}
+
+		/* Send the next request: a new board once the game is over, otherwise a move */
+		if (state != MinesEngine.State.RUNNING.ordinal()) {
+			++games;
+			session.newGame();
+		} else {
+			session.nextMove();
+		}
+		send(key, session);
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		/* Parse the arguments */
+		int sessions = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+		int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+		String host = (args.length > 2) ? args[2] : "localhost";
+		int port = (args.length > 3) ? Integer.parseInt(args[3]) : MinesServer.DEFAULT_PORT;
+		Difficulty difficulty = (args.length > 4) ? Difficulty.parse(args[4]) : Difficulty.EXPERT;
+
+		/* Play */
+		System.out.printf("%d sessions playing %s against %s:%d for %d s%n", sessions, difficulty, host, port, seconds);
+		new MinesLoadClient(difficulty).run(new InetSocketAddress(host, port), sessions, seconds, System.nanoTime());
+	}
+
+}
@@ -0,0 +1,204 @@
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h1>MinesMetrics - Per-move timings of the game, published through JMX</h1>
+ *
+ * <p>Records, for every move, the time the engine took, the cells it revealed, the time of the paint that displayed it
+ * and the total latency from the mouse press to the end of that paint, and the time taken to set up every board. Each
+ * is kept in a {@link Histogram}, so recording allocates nothing and costs a few atomic increments. Every
+ * {@link NoGuessPool} also records the boards it hands out and generates here.</p>
+ *
+ * <p>There is one instance per JVM, registered with the platform MBean server as {@value #OBJECT_NAME} the first time
+ * it is used, so the percentiles can be watched live from JConsole or any other JMX client.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public final class MinesMetrics implements MinesMetricsMXBean {
+
+	/* Name the metrics are registered under */
+	public static final String OBJECT_NAME = "mines:type=Metrics";
+
+	/* The metrics of this JVM */
+	private static final MinesMetrics INSTANCE = register(new MinesMetrics());
+
+	/* Per-move histograms */
+	private final Histogram engineNanos = new Histogram();
+	private final Histogram cellsRevealed = new Histogram();
+	private final Histogram repaintNanos = new Histogram();
+	private final Histogram latencyNanos = new Histogram();
+
+	/* Per-board histogram */
+	private final Histogram boardSetupNanos = new Histogram();
+
+	/* No-guess boards taken ready and waited for, and the time taken to generate each one */
+	private final AtomicLong noGuessHits = new AtomicLong();
+	private final AtomicLong noGuessMisses = new AtomicLong();
+	private final Histogram noGuessGenerationNanos = new Histogram();
+
+	/**
+	 * <h3>MinesMetrics is only instantiated once</h3>
+	 */
+	private MinesMetrics() {
+	}
+
+	/**
+	 * @return The metrics of this JVM
+	 */
+	public static MinesMetrics get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * <h3>Records the engine time of a move</h3>
+	 *
+	 * @param nanos : The time the engine took to apply the move
+	 */
+	public void move(long nanos) {
+		engineNanos.record(nanos);
+	}
+
+	/**
+	 * <h3>Records the engine time of a reveal or chord and the cells it revealed</h3>
+	 *
+	 * @param nanos : The time the engine took to apply the move
+	 * @param cells : The number of cells revealed
+	 */
+	public void reveal(long nanos, int cells) {
+		engineNanos.record(nanos);
+		cellsRevealed.record(cells);
+	}
+
+	/**
+	 * <h3>Records the paint that displayed a move</h3>
+	 *
+	 * @param repaintNanos : The time the paint took
+	 * @param latencyNanos : The time from the mouse press to the end of the paint
+	 */
+	public void painted(long repaintNanos, long latencyNanos) {
+		this.repaintNanos.record(repaintNanos);
+		this.latencyNanos.record(latencyNanos);
+	}
+
+	/**
+	 * <h3>Records the set up of a board</h3>
+	 *
+	 * @param nanos : The time taken to deal or swap in the board
+	 */
+	public void boardSetup(long nanos) {
+		boardSetupNanos.record(nanos);
+	}
+
+	/**
+	 * <h3>Records a no-guess board taken from a pool</h3>
+	 *
+	 * @param hit : {@code true} if the board was ready, {@code false} if it had to be waited for
+	 */
+	public void noGuessTaken(boolean hit) {
+		(hit ? noGuessHits : noGuessMisses).incrementAndGet();
+	}
+
+	/**
+	 * <h3>Records the generation of a no-guess board</h3>
+	 *
+	 * @param nanos : The worker time taken to find the board
+	 */
+	public void noGuessGenerated(long nanos) {
+		noGuessGenerationNanos.record(nanos);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Histogram.Summary getEngineNanos() {
+		return engineNanos.summary();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Histogram.Summary getCellsRevealed() {
+		return cellsRevealed.summary();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Histogram.Summary getRepaintNanos() {
+		return repaintNanos.summary();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Histogram.Summary getLatencyNanos() {
+		return latencyNanos.summary();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Histogram.Summary getBoardSetupNanos() {
+		return boardSetupNanos.summary();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getNoGuessHitRate() {
+		long hits = noGuessHits.get();
+		long taken = hits + noGuessMisses.get();
+		return (taken == 0) ? 0 : (double) hits / taken;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Histogram.Summary getNoGuessGenerationNanos() {
+		return noGuessGenerationNanos.summary();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reset() {
+		engineNanos.reset();
+		cellsRevealed.reset();
+		repaintNanos.reset();
+		latencyNanos.reset();
+		boardSetupNanos.reset();
+		noGuessHits.set(0);
+		noGuessMisses.set(0);
+		noGuessGenerationNanos.reset();
+	}
+
+	/**
+	 * <h3>Registers the metrics with the platform MBean server</h3>
+	 *
+	 * <p>If registering fails the metrics are still recorded, just not published.</p>
+	 *
+	 * @param metrics : The metrics
+	 *
+	 * @return The metrics
+	 */
+	private static MinesMetrics register(MinesMetrics metrics) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+		} catch (JMException | SecurityException e) {
+			System.err.println("MinesMetrics - register() : the metrics could not be published through JMX [" + e + "]");
+		}
+		return metrics;
+	}
+
+}
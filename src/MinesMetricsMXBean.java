@@ -0,0 +1,52 @@
+/**
+ * <h1>MinesMetricsMXBean - The management interface of {@link MinesMetrics}</h1>
+ *
+ * <p>Every histogram is published as a {@link Histogram.Summary}, which JMX clients such as JConsole show as a composite
+ * of its count, mean, percentiles and maximum. Times are in nanoseconds.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public interface MinesMetricsMXBean {
+
+	/**
+	 * @return The time the engine took to apply each move
+	 */
+	Histogram.Summary getEngineNanos();
+
+	/**
+	 * @return The number of cells each reveal or chord revealed
+	 */
+	Histogram.Summary getCellsRevealed();
+
+	/**
+	 * @return The time taken by the paint that displayed each move
+	 */
+	Histogram.Summary getRepaintNanos();
+
+	/**
+	 * @return The time from each mouse press to the end of the paint that displayed its move
+	 */
+	Histogram.Summary getLatencyNanos();
+
+	/**
+	 * @return The time taken to set up each new board, dealt or swapped in
+	 */
+	Histogram.Summary getBoardSetupNanos();
+
+	/**
+	 * @return The fraction of no-guess boards that were ready when taken, over every pool [0 if none were taken]
+	 */
+	double getNoGuessHitRate();
+
+	/**
+	 * @return The worker time taken to generate each no-guess board, over every pool
+	 */
+	Histogram.Summary getNoGuessGenerationNanos();
+
+	/**
+	 * <h3>Forgets every value recorded</h3>
+	 */
+	void reset();
+
+}
@@ -1,6 +1,11 @@
+import javax.swing.JComponent;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.ImageIcon;
+import javax.swing.KeyStroke;
+import java.awt.Graphics;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
@@ -17,6 +22,13 @@ import java.awt.event.MouseEvent;
  * <b>16 rows x 24 columns x 60 mines</b>
  * <h3>Expert:</h3>
  * <b>24 rows x 48 columns x 180 mines</b>
+ * <h3>Custom:</h3>
+ * <b>Press C to enter any size as rows x columns x mines</b>
+ *
+ * <p>No game is built until one is chosen, and a custom size is only built if its estimated memory footprint fits in
+ * the heap.</p>
+ *
+ * <p>Running with {@code -Dmines.startup=true} prints the time from entering main to the first frame of this menu.</p>
  * 
  * @version 0.0.0.0
  * @author Avery Johnson
@@ -24,17 +36,23 @@ import java.awt.event.MouseEvent;
 public class MinesOptions {
 
 	/* Window components */
-	private JFrame frame		= new JFrame("Mines - A mine clearing game");
-	private ImagePanel panel	= new ImagePanel("img\\options.png");
+	private JFrame frame		= new JFrame("Mines - A mine clearing game - C for a custom size");
+	private ImagePanel panel	= new ImagePanel("options.png") {
+		@Override
+		public void paintComponent(Graphics g) {
+			super.paintComponent(g);
+			logStartup();
+		}
+	};
 
 	/* Window Icon */
-	private static final ImageIcon FLAG_ICON = new ImageIcon("img\\flag.png");
+	private static final ImageIcon FLAG_ICON = new ImageIcon(Sprites.tile(Sprites.Tile.FLAG));
 
 	/* Option Icons */
-	private static final ImageIcon BEGINNER_ICON        = new ImageIcon("img\\beginner.png");
-	private static final ImageIcon INTERMEDIATE_ICON    = new ImageIcon("img\\intermediate.png");
-	private static final ImageIcon ADVANCED_ICON        = new ImageIcon("img\\advanced.png");
-	private static final ImageIcon EXPERT_ICON          = new ImageIcon("img\\expert.png");
+	private static final ImageIcon BEGINNER_ICON        = new ImageIcon(Sprites.load("beginner.png"));
+	private static final ImageIcon INTERMEDIATE_ICON    = new ImageIcon(Sprites.load("intermediate.png"));
+	private static final ImageIcon ADVANCED_ICON        = new ImageIcon(Sprites.load("advanced.png"));
+	private static final ImageIcon EXPERT_ICON          = new ImageIcon(Sprites.load("expert.png"));
 
 	/* Option Labels */
 	private static JLabel BEGINNER_LABEL;
@@ -48,11 +66,15 @@ public class MinesOptions {
 	private static final int OPTIONS_SECOND_ROW	= 80;
 	private static final int OPTIONS_SECOND_COL	= 200;
 
-	/* Mines difficulty options */
-	private Mines beginner		= new Mines(8, 8, 10);
-	private Mines intermediate	= new Mines(16, 16, 40);
-	private Mines advanced		= new Mines(16, 24, 60);
-	private Mines expert		= new Mines(24, 48, 180);
+	/* Whether the time from main to the first frame should be printed, and the nanoTime main was entered at */
+	private static final boolean LOG_STARTUP = Boolean.getBoolean("mines.startup");
+	private static long mainNanos;
+
+	/* Size offered when entering a custom size */
+	private static final String CUSTOM_SIZE = "30x30x150";
+
+	/* Bytes in a megabyte, for memory estimates */
+	private static final double MB = 1024 * 1024;
 
 	/**
 	 * <h3>Constructs a MinesOptions</h3>
@@ -77,8 +99,9 @@ public class MinesOptions {
 		panel.add(ADVANCED_LABEL);
 		panel.add(EXPERT_LABEL);
 
-		/* Add mouse listener */
+		/* Add mouse listener and the custom size shortcut */
 		panel.addMouseListener(mouseAdapter);
+		frame.getRootPane().registerKeyboardAction(e -> chooseCustom(), KeyStroke.getKeyStroke(KeyEvent.VK_C, 0), JComponent.WHEN_IN_FOCUSED_WINDOW);
 
 		/* Configure the frame */
 		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -112,24 +135,12 @@ public class MinesOptions {
 
 				/* If the user has selected the first column */
 				if (clickedFirstCol) { // top left / beginner
-					frame.setVisible(false);
-					frame			= null;
-					panel			= null;
-					intermediate	= null;
-					advanced		= null;
-					expert			= null;
-					beginner.start();
+					startGame(Difficulty.BEGINNER);
 				}
 
 				/* If the user has selected the second column */
 				else if (clickedSecondCol) { // top right / advanced
-					frame.setVisible(false);
-					frame			= null;
-					panel			= null;
-					beginner		= null;
-					intermediate	= null;
-					expert			= null;
-					advanced.start();
+					startGame(Difficulty.ADVANCED);
 				}
 			}
 			
@@ -138,30 +149,73 @@ public class MinesOptions {
 
 				/* If the user has selected the first column */
 				if (clickedFirstCol) { // bottom left / intermediate
-					frame.setVisible(false);
-					frame			= null;
-					panel			= null;
-					beginner		= null;
-					advanced		= null;
-					expert			= null;
-					intermediate.start();
+					startGame(Difficulty.INTERMEDIATE);
 				}
 
 				/* If the user has slected the second column */
 				else if (clickedSecondCol) { // bottom right / expert
-					frame.setVisible(false);
-					frame			= null;
-					panel			= null;
-					beginner		= null;
-					intermediate	= null;
-					advanced		= null;
-					expert.start();
+					startGame(Difficulty.EXPERT);
 				}
 			}
 		}
 	};
 
+	/**
+	 * <h3>Closes the menu, then builds and starts the game of the chosen difficulty</h3>
+	 *
+	 * @param difficulty : The chosen difficulty
+	 */
+	private void startGame(Difficulty difficulty) {
+		frame.setVisible(false);
+		frame.dispose();
+		frame	= null;
+		panel	= null;
+		difficulty.newGame().start();
+	}
+
+	/**
+	 * <h3>Asks for a custom size and starts it, if it is valid and fits in memory</h3>
+	 */
+	private void chooseCustom() {
+
+		/* Ask for the size, do nothing if the user cancels */
+		Object size = JOptionPane.showInputDialog(frame, "Rows x columns x mines", "Custom size", JOptionPane.PLAIN_MESSAGE, null, null, CUSTOM_SIZE);
+		if (size == null) {
+			return;
+		}
+
+		/* Check the size describes a board */
+		Difficulty difficulty;
+		try {
+			difficulty = Difficulty.parse(size.toString());
+		} catch (IllegalArgumentException e) {
+			JOptionPane.showMessageDialog(frame, e.getMessage(), "Invalid size", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+
+		/* Check it fits in the heap before anything is allocated */
+		if (!difficulty.fitsInMemory()) {
+			Runtime runtime = Runtime.getRuntime();
+			JOptionPane.showMessageDialog(frame, String.format("A %s board needs about %.0f MB, but only %.0f MB of heap is available [-Xmx raises the limit]",
+					difficulty, difficulty.estimateBytes() / MB, (runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory())) / MB),
+					"Board too large", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+		startGame(difficulty);
+	}
+
+	/**
+	 * <h3>Prints the time from main to the first frame, once, if startup logging is enabled</h3>
+	 */
+	private static void logStartup() {
+		if (LOG_STARTUP && mainNanos != 0) {
+			System.out.printf("MinesOptions - startup: %.1f ms from main to the first frame%n", (System.nanoTime() - mainNanos) / 1e6);
+			mainNanos = 0;
+		}
+	}
+
 	public static void main(String[] args) {
+		mainNanos = System.nanoTime();
 		@SuppressWarnings("unused")
 		MinesOptions minesOptions = new MinesOptions();
 	}
@@ -0,0 +1,155 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <h1>MinesSave - Save and resume games in progress</h1>
+ *
+ * <p>A save file is a fixed 40 byte header followed by one byte per cell:</p>
+ *
+ * <pre>
+ *  offset  size  field
+ *       0     4  magic "MINS"
+ *       4     4  format version
+ *       8     4  rows
+ *      12     4  cols
+ *      16     4  mines
+ *      20     4  reserved [0]
+ *      24     8  seed
+ *      32     8  elapsed time in milliseconds
+ *      40  rows*cols  cells in index order [bits 0-3 neighbor count (9 = mine), bit 4 flagged, bit 5 revealed]
+ * </pre>
+ *
+ * <p>All values are big-endian. Both the header and the cells are read and written through {@link MappedByteBuffer}s,
+ * so saving or restoring even a 100 million cell board is a bulk memory copy into the page cache rather than a stream
+ * of small writes or object serialization. Neighbor counts are stored with the cells, so nothing has to be recounted on
+ * load.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public final class MinesSave {
+
+	/* Identifies a save file ["MINS"] */
+	private static final int MAGIC = 0x4D494E53;
+
+	/* Version of the file format */
+	private static final int VERSION = 1;
+
+	/* Size of the header in bytes */
+	private static final int HEADER_BYTES = 40;
+
+	/* The engine and elapsed time of a loaded game */
+	private final MinesEngine engine;
+	private final long elapsedMS;
+
+	/**
+	 * <h3>Constructs a MinesSave holding a loaded game</h3>
+	 *
+	 * @param engine    : The restored engine
+	 * @param elapsedMS : The time already played, in milliseconds
+	 */
+	private MinesSave(MinesEngine engine, long elapsedMS) {
+		this.engine = engine;
+		this.elapsedMS = elapsedMS;
+	}
+
+	/**
+	 * @return The restored engine
+	 */
+	public MinesEngine getEngine() {
+		return engine;
+	}
+
+	/**
+	 * @return The time already played when the game was saved, in milliseconds
+	 */
+	public long getElapsedMS() {
+		return elapsedMS;
+	}
+
+	/**
+	 * <h3>Saves a game to a file, replacing the file if it exists</h3>
+	 *
+	 * @param path      : The file to save to
+	 * @param engine    : The engine holding the game
+	 * @param elapsedMS : The time played so far, in milliseconds
+	 *
+	 * @throws IOException {@code if the file cannot be written}
+	 */
+	public static void save(Path path, MinesEngine engine, long elapsedMS) throws IOException {
+
+		/* Determine the size of the cells section */
+		int cells = engine.getRows() * engine.getCols();
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+			/* Write the header */
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+			header.putInt(MAGIC);
+			header.putInt(VERSION);
+			header.putInt(engine.getRows());
+			header.putInt(engine.getCols());
+			header.putInt(engine.getTotalMines());
+			header.putInt(0);
+			header.putLong(engine.getSeed());
+			header.putLong(elapsedMS);
+
+			/* Write the cells */
+			MappedByteBuffer body = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES, cells);
+			engine.writeCells(body);
+		}
+	}
+
+	/**
+	 * <h3>Loads a game from a file</h3>
+	 *
+	 * @param path : The file to load from
+	 *
+	 * @return The loaded game
+	 *
+	 * @throws IOException {@code if the file cannot be read or is not a valid save file}
+	 */
+	public static MinesSave load(Path path) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+			/* Read and check the header */
+			if (channel.size() < HEADER_BYTES) {
+				throw new IOException("MinesSave - load() : " + path + " is too short to be a save file");
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+			if (header.getInt() != MAGIC) {
+				throw new IOException("MinesSave - load() : " + path + " is not a save file");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException("MinesSave - load() : " + path + " has unsupported version " + version);
+			}
+			int rows = header.getInt();
+			int cols = header.getInt();
+			int mines = header.getInt();
+			header.getInt();
+			long seed = header.getLong();
+			long elapsedMS = header.getLong();
+
+			/* Check the cells section is complete */
+			long cells = (long) rows * cols;
+			if (rows < 1 || cols < 1 || cells > Integer.MAX_VALUE || channel.size() != HEADER_BYTES + cells) {
+				throw new IOException("MinesSave - load() : " + path + " has a header that does not match its size");
+			}
+
+			/* Restore the engine from the cells */
+			try {
+				MinesEngine engine = new MinesEngine(rows, cols, mines, seed, channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, cells));
+				return new MinesSave(engine, elapsedMS);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("MinesSave - load() : " + path + " does not hold a valid board", e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,441 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * <h1>MinesServer - Hosts headless games for many clients over TCP</h1>
+ *
+ * <p>Every connection is a session holding one {@link MinesEngine}, and every session is served by a single thread
+ * that multiplexes all the connections over one {@link Selector}. A session costs its engine and two small buffers, and
+ * no thread, so one JVM can hold thousands of games.</p>
+ *
+ * <p>Requests use the record types of {@link MoveLog}, without the time delta. Every request gets one reply carrying
+ * the cells the request changed:</p>
+ *
+ * <pre>
+ *  request  GAME    type 0 | rows 4 | cols 4 | mines 4 | seed 8       deal a new board [the session's first request]
+ *           PRESET  type 8 | preset 4 | seed 8                        deal a new board of a preset, by its index in
+ *                                                                     {@link Difficulty#presets()}
+ *           REVEAL  type 1 | cell 4                                   cell = row * cols + col
+ *           FLAG    type 2 | cell 4
+ *           UNFLAG  type 3 | cell 4
+ *           CHORD   type 4 | cell 4
+ *
+ *  reply    status 1 | state 1 | changed 4 | changed * (cell 4 | value 1)
+ * </pre>
+ *
+ * <p>The status is {@link #OK} or {@link #REJECTED} [an invalid board, a cell off the board, or a move before the first
+ * board, or an unknown preset], the state is the ordinal of the game's {@link MinesEngine.State}, and each value is a cell as the player sees
+ * it, in the layout of {@link MinesSave}: the neighbor count [9 for a mine] and bit 5 once revealed, bit 4 while flagged,
+ * and 0 otherwise. All values are big-endian. Clients may pipeline requests, replies come back in order. A request of
+ * unknown type closes the connection, and so does any other failure while serving it, leaving every other session
+ * running.</p>
+ *
+ * <p>Moves are timed into {@link MinesMetrics}, so the server's move latencies can be watched through JMX. Run with
+ * {@code java MinesServer [port]}, and load it with {@link MinesLoadClient}.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class MinesServer {
+
+	/* Port served when none is given */
+	public static final int DEFAULT_PORT = 7070;
+
+	/* Request type dealing a preset board [past every record type of MoveLog] */
+	static final byte PRESET = 8;
+
+	/* Reply statuses */
+	static final byte OK		= 0;
+	static final byte REJECTED	= 1;
+
+	/* Size of each kind of request in bytes */
+	static final int GAME_BYTES = 1 + 4 + 4 + 4 + 8;
+	static final int PRESET_BYTES = 1 + 4 + 8;
+	static final int MOVE_BYTES = 1 + 4;
+
+	/* Size of a reply without its cells, and of each cell */
+	static final int REPLY_BYTES = 1 + 1 + 4;
+	static final int CELL_BYTES = 4 + 1;
+
+	/* Largest board a session may deal, in cells */
+	static final int MAX_CELLS = 1 << 16;
+
+	/* Size of each session's request buffer [room for a batch of pipelined requests] */
+	private static final int IN_BYTES = 1 << 10;
+
+	/* Size of each session's reply buffer [grown when a reply does not fit, and shrunk back once it is written] */
+	private static final int OUT_BYTES = 1 << 8;
+
+	/* Time between status lines, in milliseconds */
+	private static final long STATUS_MS = 10_000;
+
+	/* The boards a PRESET request can deal, by index */
+	private static final Difficulty[] PRESETS = Difficulty.presets();
+
+	/* Where move timings are recorded */
+	private static final MinesMetrics METRICS = MinesMetrics.get();
+
+	/* The selector every connection is multiplexed over, and the listening channel */
+	private final Selector selector;
+	private final ServerSocketChannel listener;
+
+	/* Totals over the server's life */
+	private int sessions = 0;
+	private long moves = 0;
+
+	/**
+	 * <h3>A connection and the game played over it</h3>
+	 */
+	private static final class Session {
+
+		/* Requests read but not yet handled */
+		private final ByteBuffer in = ByteBuffer.allocate(IN_BYTES);
+
+		/* Replies not yet written [kept in write mode between writes] */
+		private ByteBuffer out = ByteBuffer.allocate(OUT_BYTES);
+
+		/* The game [null until the first GAME request] */
+		private MinesEngine engine;
+	}
+
+	/**
+	 * <h3>Constructs a MinesServer listening on a port</h3>
+	 *
+	 * @param port : The port to listen on [0 for any free port]
+	 *
+	 * @throws IOException {@code if the port cannot be bound}
+	 */
+	public MinesServer(int port) throws IOException {
+		selector = Selector.open();
+		listener = ServerSocketChannel.open();
+		listener.bind(new InetSocketAddress(port), 1024);
+		listener.configureBlocking(false);
+		listener.register(selector, SelectionKey.OP_ACCEPT);
+	}
+
+	/**
+	 * @return The port the server listens on
+	 *
+	 * @throws IOException {@code if the listening channel is closed}
+	 */
+	public int getPort() throws IOException {
+		return ((InetSocketAddress) listener.getLocalAddress()).getPort();
+	}
+
+	/**
+	 * <h3>Serves every connection until the thread is interrupted</h3>
+	 *
+	 * @throws IOException {@code if the selector or the listening channel fails}
+	 */
+	public void serve() throws IOException {
+
+		long lastStatus = System.currentTimeMillis();
+		long lastMoves = 0;
+
+		while (!Thread.currentThread().isInterrupted()) {
+
+			/* Wait for connections, requests and room to write replies */
+			selector.select(STATUS_MS);
+
+			/* Handle every ready channel */
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while (keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+				try {
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept();
+						continue;
+					}
+					if (key.isWritable()) {
+						write(key);
+					}
+					if (key.isValid() && key.isReadable()) {
+						read(key);
+					}
+				} catch (IOException | RuntimeException e) {
+
+					/* A failed connection ends its session, a failed accept [e.g. out of file descriptors] is reported */
+					if (key.channel() == listener) {
+						System.err.println("MinesServer - serve() : accepting a connection failed [" + e + "]");
+					} else {
+						if (e instanceof RuntimeException) {
+							System.err.println("MinesServer - serve() : serving a session failed, closing it [" + e + "]");
+						}
+						close(key);
+					}
+				}
+			}
+
+			/* Print a status line now and then */
+			long now = System.currentTimeMillis();
+			if (now - lastStatus >= STATUS_MS) {
+				System.out.printf("MinesServer - %d sessions, %.0f moves/s%n", sessions, (moves - lastMoves) * 1000.0 / (now - lastStatus));
+				lastStatus = now;
+				lastMoves = moves;
+			}
+		}
+	}
+
+	/**
+	 * <h3>Stops listening and closes every connection</h3>
+	 *
+	 * @throws IOException {@code if a channel cannot be closed}
+	 */
+	public void close() throws IOException {
+		for (SelectionKey key : selector.keys()) {
+			key.channel().close();
+		}
+		selector.close();
+	}
+
+	/**
+	 * @return The number of connections open
+	 */
+	public int getSessions() {
+		return sessions;
+	}
+
+	/**
+	 * @return The number of moves applied
+	 */
+	public long getMoves() {
+		return moves;
+	}
+
+	/**
+	 * <h3>Accepts every waiting connection as a new session</h3>
+	 *
+	 * @throws IOException {@code if the listening channel fails}
+	 */
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while ((channel = listener.accept()) != null) {
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			channel.register(selector, SelectionKey.OP_READ, new Session());
+			++sessions;
+		}
+	}
+
+	/**
+	 * <h3>Reads requests from a connection and handles every complete one</h3>
+	 *
+	 * @param key : The connection's key
+	 *
+	 * @throws IOException {@code if the connection fails or sends a request of unknown type}
+	 */
+	private void read(SelectionKey key) throws IOException {
+		Session session = (Session) key.attachment();
+		SocketChannel channel = (SocketChannel) key.channel();
+
+		/* Read what has arrived, the client closing ends the session */
+		if (channel.read(session.in) < 0) {
+			close(key);
+			return;
+		}
+
+		/* Handle every complete request, keeping a partial one for the next read */
+		session.in.flip();
+		while (session.in.hasRemaining()) {
+			byte type = session.in.get(session.in.position());
+			int size = (type == MoveLog.GAME) ? GAME_BYTES : (type == PRESET) ? PRESET_BYTES : MOVE_BYTES;
+			if (session.in.remaining() < size) {
+				break;
+			}
+			handle(session, session.in);
+		}
+		session.in.compact();
+
+		/* Send the replies */
+		write(key);
+	}
+
+	/**
+	 * <h3>Handles one request, appending its reply to the session's reply buffer</h3>
+	 *
+	 * @param session : The session
+	 * @param request : The request, positioned at its type
+	 *
+	 * @throws IOException {@code if the request type is unknown}
+	 */
+	private void handle(Session session, ByteBuffer request) throws IOException {
+		byte type = request.get();
+
+		/* Deal a new board of the given size */
+		if (type == MoveLog.GAME) {
+			int rows = request.getInt();
+			int cols = request.getInt();
+			int mines = request.getInt();
+			long seed = request.getLong();
+			if (rows < 1 || cols < 1 || mines < 1 || (long) rows * cols > MAX_CELLS || mines > rows * cols) {
+				reply(session, REJECTED);
+				return;
+			}
+			deal(session, rows, cols, mines, seed);
+			return;
+		}
+
+		/* Deal a new board of a preset */
+		if (type == PRESET) {
+			int preset = request.getInt();
+			long seed = request.getLong();
+			if (preset < 0 || preset >= PRESETS.length) {
+				reply(session, REJECTED);
+				return;
+			}
+			deal(session, PRESETS[preset].getRows(), PRESETS[preset].getCols(), PRESETS[preset].getMines(), seed);
+			return;
+		}
+
+		/* Otherwise it is a move on the session's board */
+		if (type != MoveLog.REVEAL && type != MoveLog.FLAG && type != MoveLog.UNFLAG && type != MoveLog.CHORD) {
+			throw new IOException("MinesServer - handle() : unknown request type " + type);
+		}
+		int cell = request.getInt();
+		MinesEngine engine = session.engine;
+		if (engine == null || cell < 0 || cell >= engine.getRows() * engine.getCols()) {
+			reply(session, REJECTED);
+			return;
+		}
+
+		/* Apply the move, timing it */
+		int row = cell / engine.getCols();
+		int col = cell - row * engine.getCols();
+		long tMove = System.nanoTime();
+		switch (type) {
+			case MoveLog.REVEAL:	engine.reveal(row, col);	break;
+			case MoveLog.FLAG:		engine.flag(row, col);		break;
+			case MoveLog.UNFLAG:	engine.unflag(row, col);	break;
+			default:				engine.chord(row, col);		break;
+		}
+		long nanos = System.nanoTime() - tMove;
+		if (type == MoveLog.REVEAL || type == MoveLog.CHORD) {
+			METRICS.reveal(nanos, engine.getChangedCount());
+		} else {
+			METRICS.move(nanos);
+		}
+		++moves;
+
+		/* Reply with the cells it changed */
+		reply(session, OK);
+	}
+
+	/**
+	 * <h3>Deals a new board for a session, reusing its engine if it is the same size</h3>
+	 *
+	 * @param session : The session
+	 * @param rows    : The number of rows
+	 * @param cols    : The number of columns
+	 * @param mines   : The number of mines
+	 * @param seed    : The seed of the board
+	 */
+	private static void deal(Session session, int rows, int cols, int mines, long seed) {
+		MinesEngine engine = session.engine;
+		if (engine == null || engine.getRows() != rows || engine.getCols() != cols || engine.getTotalMines() != mines) {
+			session.engine = new MinesEngine(rows, cols, mines, seed);
+		} else {
+			engine.reset(seed);
+		}
+		reply(session, OK);
+	}
+
+	/**
+	 * <h3>Appends a reply carrying the cells changed by the session's last move</h3>
+	 *
+	 * @param session : The session
+	 * @param status  : {@link #OK} or {@link #REJECTED} [a rejected request changed nothing]
+	 */
+	private static void reply(Session session, byte status) {
+		MinesEngine engine = session.engine;
+
+		/* A rejected request, or a new board, changed no cell */
+		int changed = (status == OK && engine != null) ? engine.getChangedCount() : 0;
+		ensureRoom(session, REPLY_BYTES + changed * CELL_BYTES);
+		byte state = (byte) ((engine == null) ? MinesEngine.State.RUNNING : engine.getState()).ordinal();
+		session.out.put(status).put(state).putInt(changed);
+
+		/* Write every changed cell as the player now sees it */
+		for (int i = 0;i < changed;++i) {
+			int cell = engine.getChangedCell(i);
+			session.out.putInt(cell).put((byte) engine.visibleCell(cell));
+		}
+	}
+
+	/**
+	 * <h3>Grows a session's reply buffer if a reply would not fit</h3>
+	 *
+	 * @param session : The session
+	 * @param bytes   : The size of the reply
+	 */
+	private static void ensureRoom(Session session, int bytes) {
+		if (session.out.remaining() < bytes) {
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(session.out.capacity() * 2, session.out.position() + bytes));
+			session.out.flip();
+			grown.put(session.out);
+			session.out = grown;
+		}
+	}
+
+	/**
+	 * <h3>Writes as much of a session's replies as the connection takes</h3>
+	 *
+	 * <p>While replies are left over the connection waits for room to write them and stops reading, so a client that
+	 * does not read its replies cannot make the server buffer without bound. Once every reply is written, a buffer grown
+	 * for a large cascade is dropped for a small one, so an idle session never holds more than {@link #OUT_BYTES}.</p>
+	 *
+	 * @param key : The connection's key
+	 *
+	 * @throws IOException {@code if the connection fails}
+	 */
+	private void write(SelectionKey key) throws IOException {
+		Session session = (Session) key.attachment();
+		session.out.flip();
+		((SocketChannel) key.channel()).write(session.out);
+		session.out.compact();
+		if (session.out.position() == 0 && session.out.capacity() > OUT_BYTES) {
+			session.out = ByteBuffer.allocate(OUT_BYTES);
+		}
+		key.interestOps((session.out.position() > 0) ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+	}
+
+	/**
+	 * <h3>Closes a connection and ends its session</h3>
+	 *
+	 * @param key : The connection's key
+	 */
+	private void close(SelectionKey key) {
+		if (key.attachment() != null) {
+			--sessions;
+			key.attach(null);
+		}
+		key.cancel();
+		try {
+			key.channel().close();
+		} catch (IOException e) {
+			/* The session is over either way */
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		/* Parse the arguments */
+		int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+		/* Serve until killed */
+		MinesServer server = new MinesServer(port);
+		System.out.println("MinesServer - listening on port " + server.getPort());
+		server.serve();
+	}
+
+}
@@ -0,0 +1,305 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <h1>MinesSimulator - Headless Monte Carlo simulator for win rates</h1>
+ *
+ * <p>Plays many games per board configuration with a fixed policy and reports the win rate, the average 3BV of the
+ * boards dealt and the games played per second. The policy opens the center cell, then reveals every cell
+ * {@link MinesSolver} can prove safe, and when nothing can be proven reveals a random cell the solver has not proven to
+ * be a mine.</p>
+ *
+ * <p>The games of a configuration are split into batches of {@link #BATCH_GAMES} that run on a {@link ForkJoinPool}.
+ * Every batch is given its own {@link SplittableRandom} stream, split from the master seed before any batch starts, so
+ * the results depend only on the master seed and never on how the batches were scheduled. A batch creates one engine
+ * and one solver and deals every one of its games on them, so a game allocates nothing.</p>
+ *
+ * <p>Run with {@code java MinesSimulator [games] [threads] [seed] [<rows>x<cols>x<mines> ...]}. By default 100,000 games
+ * are played on each of the four {@link Difficulty} presets using every core.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class MinesSimulator {
+
+	/* Number of games played by each fork/join task */
+	private static final int BATCH_GAMES = 1024;
+
+	/* Number of random cells tried before a guess falls back to scanning the board */
+	private static final int GUESS_ATTEMPTS = 64;
+
+	/* The pool batches run on */
+	private final ForkJoinPool pool;
+
+	/**
+	 * <h3>Constructs a MinesSimulator that runs on the given number of threads</h3>
+	 *
+	 * @param threads : The number of worker threads
+	 */
+	public MinesSimulator(int threads) {
+		pool = new ForkJoinPool(threads);
+	}
+
+	/**
+	 * <h3>Plays a number of games on one board configuration</h3>
+	 *
+	 * @param rows  : The number of rows
+	 * @param cols  : The number of columns
+	 * @param mines : The number of mines
+	 * @param games : The number of games to play
+	 * @param seed  : The master seed every batch's stream is split from
+	 *
+	 * @return {wins, sum of the 3BV of every board}
+	 *
+	 * @throws IllegalArgumentException {@code if games < 1}
+	 * @throws IllegalArgumentException {@code if the configuration does not describe a valid board}
+	 */
+	public long[] simulate(int rows, int cols, int mines, int games, long seed) {
+
+		/* Reject an empty run, which has no win rate */
+		if (games < 1) throw new IllegalArgumentException("MinesSimulator - simulate() : games < 1 returned true");
+
+		/* Split a stream off the master seed for every batch, in order, before any of them runs */
+		SplittableRandom master = new SplittableRandom(seed);
+		List<Batch> batches = new ArrayList<>();
+		for (int first = 0;first < games;first += BATCH_GAMES) {
+			batches.add(new Batch(rows, cols, mines, Math.min(BATCH_GAMES, games - first), master.split()));
+		}
+
+		/* Run every batch and add up their totals */
+		for (Batch batch : batches) {
+			pool.execute(batch);
+		}
+		long[] totals = new long[2];
+		for (Batch batch : batches) {
+			long[] result = batch.join();
+			totals[0] += result[0];
+			totals[1] += result[1];
+		}
+		return totals;
+	}
+
+	/**
+	 * <h3>Stops the worker threads</h3>
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * <h3>A batch of games played on one engine by one worker</h3>
+	 */
+	private static final class Batch extends RecursiveTask<long[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		/* The board configuration and number of games */
+		private final int rows;
+		private final int cols;
+		private final int mines;
+		private final int games;
+
+		/* The batch's own stream of board seeds and guesses */
+		private final SplittableRandom random;
+
+		/* Reused by every game of the batch */
+		private MinesEngine engine;
+		private MinesSolver solver;
+		private boolean[] counted;
+		private int[] stack;
+
+		/**
+		 * <h3>Constructs a Batch</h3>
+		 *
+		 * @param rows   : The number of rows
+		 * @param cols   : The number of columns
+		 * @param mines  : The number of mines
+		 * @param games  : The number of games to play
+		 * @param random : The batch's own random stream
+		 */
+		Batch(int rows, int cols, int mines, int games, SplittableRandom random) {
+			this.rows = rows;
+			this.cols = cols;
+			this.mines = mines;
+			this.games = games;
+			this.random = random;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected long[] compute() {
+
+			/* Create the engine, solver and scratch arrays every game of the batch shares */
+			engine = new MinesEngine(rows, cols, mines, random.nextLong());
+			solver = new MinesSolver(engine, false);
+			counted = new boolean[rows * cols];
+			stack = new int[rows * cols];
+
+			/* Play every game, counting wins and 3BV */
+			long wins = 0;
+			long bv = 0;
+			for (int game = 0;game < games;++game) {
+				engine.reset(random.nextLong());
+				bv += count3BV();
+				if (play() == MinesEngine.State.WON) {
+					++wins;
+				}
+			}
+			return new long[] {wins, bv};
+		}
+
+		/**
+		 * <h3>Plays the board on the engine to the end</h3>
+		 *
+		 * @return The final state of the game
+		 */
+		private MinesEngine.State play() {
+
+			/* Open the center cell */
+			solver.rescan();
+			int cell = (rows / 2) * cols + cols / 2;
+
+			/* Until the game is over, reveal a cell and let the solver see the result */
+			while (true) {
+				if (engine.reveal(cell / cols, cell % cols) != MinesEngine.State.RUNNING) {
+					return engine.getState();
+				}
+				solver.update();
+				solver.solve();
+				cell = solver.nextSafeCell();
+				if (cell < 0) {
+					cell = guess();
+				}
+			}
+		}
+
+		/**
+		 * <h3>Picks a random hidden cell the solver has not proven to be a mine</h3>
+		 *
+		 * @return The index of the cell
+		 */
+		private int guess() {
+
+			/* Try random cells first, which almost always finds one quickly */
+			int cells = rows * cols;
+			for (int attempt = 0;attempt < GUESS_ATTEMPTS;++attempt) {
+				int cell = random.nextInt(cells);
+				if (isGuessable(cell)) {
+					return cell;
+				}
+			}
+
+			/* Otherwise scan from a random start [the game is running, so a hidden safe cell exists] */
+			int start = random.nextInt(cells);
+			for (int i = 0;i < cells;++i) {
+				int cell = (start + i) % cells;
+				if (isGuessable(cell)) {
+					return cell;
+				}
+			}
+			throw new IllegalStateException("MinesSimulator - guess() : no hidden cell left on a running board");
+		}
+
+		/**
+		 * @param cell : The index of a cell
+		 *
+		 * @return {@code true} if the cell is hidden and not proven to be a mine
+		 */
+		private boolean isGuessable(int cell) {
+			int row = cell / cols;
+			int col = cell - row * cols;
+			return !engine.isRevealed(row, col) && !solver.isMine(row, col);
+		}
+
+		/**
+		 * <h3>Counts the 3BV of the board: the fewest reveals that clear it without flagging</h3>
+		 *
+		 * <p>Every opening [a connected area of zero cells together with the numbers bordering it] takes one reveal, and
+		 * every safe cell outside an opening takes one reveal of its own.</p>
+		 *
+		 * @return The 3BV of the board
+		 */
+		private int count3BV() {
+			Arrays.fill(counted, false);
+			int bv = 0;
+
+			/* Count every opening, marking the cells it clears */
+			for (int cell = 0;cell < counted.length;++cell) {
+				if (!counted[cell] && neighborMines(cell) == 0) {
+					++bv;
+					counted[cell] = true;
+					int size = 0;
+					stack[size++] = cell;
+					while (size > 0) {
+						int open = stack[--size];
+						int row = open / cols;
+						int col = open - row * cols;
+						for (int r = Math.max(row - 1, 0);r <= Math.min(row + 1, rows - 1);++r) {
+							for (int c = Math.max(col - 1, 0);c <= Math.min(col + 1, cols - 1);++c) {
+								int neighbor = r * cols + c;
+								if (!counted[neighbor]) {
+									counted[neighbor] = true;
+									if (neighborMines(neighbor) == 0) {
+										stack[size++] = neighbor;
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+
+			/* Count every safe cell no opening cleared */
+			for (int cell = 0;cell < counted.length;++cell) {
+				if (!counted[cell] && neighborMines(cell) != MinesEngine.MINE) {
+					++bv;
+				}
+			}
+			return bv;
+		}
+
+		/**
+		 * @param cell : The index of a cell
+		 *
+		 * @return The cell's neighbor count, or {@link MinesEngine#MINE}
+		 */
+		private int neighborMines(int cell) {
+			return engine.getNeighborMines(cell / cols, cell % cols);
+		}
+	}
+
+	public static void main(String[] args) {
+
+		/* Parse the arguments */
+		int games = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+		int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		long seed = (args.length > 2) ? Long.parseLong(args[2]) : 0;
+		Difficulty[] configs = Difficulty.presets();
+		if (args.length > 3) {
+			configs = new Difficulty[args.length - 3];
+			for (int i = 3;i < args.length;++i) {
+				configs[i - 3] = Difficulty.parse(args[i]);
+			}
+		}
+
+		/* Simulate every configuration and report it */
+		MinesSimulator simulator = new MinesSimulator(threads);
+		System.out.printf("%d games per board on %d threads, seed %d%n", games, threads, seed);
+		System.out.printf("%-12s %10s %10s %12s%n", "board", "win rate", "avg 3BV", "games/s");
+		for (Difficulty config : configs) {
+			long tInit = System.nanoTime();
+			long[] totals = simulator.simulate(config.getRows(), config.getCols(), config.getMines(), games, seed);
+			double seconds = (System.nanoTime() - tInit) / 1e9;
+			System.out.printf("%-12s %9.2f%% %10.2f %12.0f%n", config,
+					100.0 * totals[0] / games, (double) totals[1] / games, games / seconds);
+		}
+		simulator.shutdown();
+	}
+
+}
@@ -0,0 +1,418 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * <h1>MinesSolver - Deduces safe and mined cells from what the player can see</h1>
+ *
+ * <p>Works only on the information a player has: which cells are revealed, the neighbor counts of the revealed cells
+ * and, if asked to trust them, the flags. Every revealed cell with a nonzero count is a constraint on its hidden
+ * neighbors, and two rules are applied until nothing more can be deduced:</p>
+ *
+ * <pre>
+ *  single cell   a constraint whose remaining mines are 0 has only safe unknown neighbors, and one whose remaining
+ *                mines equal its unknown neighbors has only mined ones
+ *  difference    for two constraints A and B within two cells of each other, if A's remaining mines less B's equal
+ *                the unknowns only A has, those are all mines and the unknowns only B has are all safe [this covers
+ *                the subset rule, where one side has no unknowns of its own]
+ * </pre>
+ *
+ * <p>The frontier [revealed cells that still have undetermined hidden neighbors] and the deduced cells are kept in
+ * {@link BitSet}s. Constraints are only re-checked when something near them changes: {@link #update()} queues the
+ * constraints around the cells the engine changed on its last move, and every deduction queues the constraints around
+ * the deduced cell. Each cell is deduced at most once and queues at most 8 constraints, so solving a whole board is
+ * close to linear in its size.</p>
+ *
+ * <p>Flags are ignored unless {@code trustFlags} is set, since a wrong flag would make the solver deduce wrong cells.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class MinesSolver {
+
+	/* The engine whose visible state is solved */
+	private final MinesEngine engine;
+
+	/* Dimensions of the board */
+	private final int ROWS;
+	private final int COLS;
+	private final int CELLS;
+
+	/* Whether flagged cells count as mines */
+	private final boolean trustFlags;
+
+	/*
+	 * Every set that has bits cleared keeps a sentinel bit at index CELLS: BitSet rescans its words from the top whenever
+	 * its highest bit is cleared, so without the sentinel a set that keeps emptying would cost O(cells) per move
+	 */
+
+	/* Revealed cells that still have undetermined hidden neighbors */
+	private final BitSet frontier;
+
+	/* Hidden cells deduced to be safe, and cells deduced to be mines */
+	private final BitSet safe;
+	private final BitSet mined;
+
+	/* Number of cells deduced since the last rescan */
+	private int deductions = 0;
+
+	/* No safe cell is below this index [keeps nextSafeCell() from rescanning the start of the board every move] */
+	private int safeFloor = 0;
+
+	/* Constraints waiting to be checked, with a bit set for every cell on the queue */
+	private int[] queue = new int[64];
+	private int queueSize = 0;
+	private final BitSet queued;
+
+	/* The undetermined neighbors of the two constraints being compared, and their remaining mines */
+	private final int[] unknownsA = new int[8];
+	private final int[] unknownsB = new int[8];
+	private int remainingMines;
+
+	/**
+	 * <h3>Constructs a MinesSolver over the current state of an engine</h3>
+	 *
+	 * @param engine     : The engine to solve
+	 * @param trustFlags : Whether flagged cells count as mines
+	 */
+	public MinesSolver(MinesEngine engine, boolean trustFlags) {
+		this.engine = engine;
+		this.trustFlags = trustFlags;
+		ROWS = engine.getRows();
+		COLS = engine.getCols();
+		CELLS = ROWS * COLS;
+		frontier = new BitSet(CELLS + 1);
+		safe = new BitSet(CELLS + 1);
+		mined = new BitSet(CELLS);
+		queued = new BitSet(CELLS + 1);
+		rescan();
+	}
+
+	/**
+	 * <h3>Forgets every deduction and rebuilds the frontier from the whole board</h3>
+	 *
+	 * <p>Must be called after the engine deals a new board, or after moves were made without calling {@link #update()}.</p>
+	 */
+	public void rescan() {
+
+		/* Forget everything */
+		frontier.clear();
+		safe.clear();
+		mined.clear();
+		queued.clear();
+		frontier.set(CELLS);
+		safe.set(CELLS);
+		queued.set(CELLS);
+		queueSize = 0;
+		deductions = 0;
+		safeFloor = 0;
+
+		/* Queue every revealed cell with neighboring mines */
+		for (int row = 0;row < ROWS;++row) {
+			for (int col = 0;col < COLS;++col) {
+				if (engine.isRevealed(row, col) && engine.getNeighborMines(row, col) != 0) {
+					int cell = row * COLS + col;
+					frontier.set(cell);
+					enqueue(cell);
+				}
+			}
+		}
+	}
+
+	/**
+	 * <h3>Takes in the cells the engine changed on its last move</h3>
+	 *
+	 * <p>Must be called after every move, so that only the constraints around the changed cells are re-checked.</p>
+	 */
+	public void update() {
+
+		/* If the game is over there is nothing left to solve */
+		if (!engine.isRunning()) {
+			while (queueSize > 0) {
+				queued.clear(queue[--queueSize]);
+			}
+			return;
+		}
+
+		/* For every changed cell */
+		for (int i = 0;i < engine.getChangedCount();++i) {
+			int cell = engine.getChangedCell(i);
+			int row = cell / COLS;
+			int col = cell - row * COLS;
+
+			/* A newly revealed cell is no longer a deduction, and becomes a constraint if it has neighboring mines */
+			if (engine.isRevealed(row, col)) {
+				safe.clear(cell);
+				if (engine.getNeighborMines(row, col) != 0) {
+					frontier.set(cell);
+					enqueue(cell);
+				}
+			}
+
+			/* Either way, the constraints around it have one cell fewer to decide */
+			enqueueNeighbors(cell);
+		}
+	}
+
+	/**
+	 * <h3>Applies the rules to every queued constraint until nothing more can be deduced</h3>
+	 *
+	 * @return The number of cells newly deduced
+	 */
+	public int solve() {
+
+		/* Count the deductions made */
+		int deduced = deductions;
+
+		/* Until no constraint is waiting */
+		while (queueSize > 0) {
+			int cell = queue[--queueSize];
+			queued.clear(cell);
+			check(cell);
+		}
+
+		/* Return how many cells were deduced */
+		return deductions - deduced;
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if the cell is hidden and has been deduced to be safe
+	 */
+	public boolean isSafe(int row, int col) {
+		return safe.get(row * COLS + col);
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if the cell has been deduced to be a mine
+	 */
+	public boolean isMine(int row, int col) {
+		return mined.get(row * COLS + col);
+	}
+
+	/**
+	 * @return A copy of the hidden cells deduced to be safe, by index {@code row * cols + col}
+	 */
+	public BitSet getSafeCells() {
+		BitSet cells = (BitSet) safe.clone();
+		cells.clear(CELLS);
+		return cells;
+	}
+
+	/**
+	 * @return A copy of the cells deduced to be mines, by index {@code row * cols + col}
+	 */
+	public BitSet getMinedCells() {
+		return (BitSet) mined.clone();
+	}
+
+	/**
+	 * @return The index of the first hidden cell deduced to be safe, or -1 if there is none
+	 */
+	public int nextSafeCell() {
+		int cell = safe.nextSetBit(safeFloor);
+		safeFloor = cell;
+		return (cell == CELLS) ? -1 : cell;
+	}
+
+	/**
+	 * @return The index of the first unflagged cell deduced to be a mine, or -1 if there is none
+	 */
+	public int nextUnflaggedMine() {
+		for (int cell = mined.nextSetBit(0);cell >= 0;cell = mined.nextSetBit(cell + 1)) {
+			if (!engine.isFlagged(cell / COLS, cell % COLS)) {
+				return cell;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return The number of revealed cells that still have undetermined hidden neighbors
+	 */
+	public int getFrontierSize() {
+		return frontier.cardinality() - 1;
+	}
+
+	/**
+	 * <h3>Applies the single cell and difference rules to one constraint</h3>
+	 *
+	 * @param cell : The index of the constraint
+	 */
+	private void check(int cell) {
+
+		/* If the constraint has nothing left to decide it leaves the frontier */
+		if (!frontier.get(cell)) {
+			return;
+		}
+		int countA = collectUnknowns(cell, unknownsA);
+		int remainingA = remainingMines;
+		if (countA == 0) {
+			frontier.clear(cell);
+			return;
+		}
+
+		/* Single cell rule: every unknown is safe, or every unknown is a mine */
+		if (remainingA == 0 || remainingA == countA) {
+			markAll(unknownsA, countA, remainingA != 0);
+			frontier.clear(cell);
+			return;
+		}
+
+		/* Difference rule against every other constraint within two cells */
+		int row = cell / COLS;
+		int col = cell - row * COLS;
+		for (int r = Math.max(row - 2, 0);r <= Math.min(row + 2, ROWS - 1);++r) {
+			for (int c = Math.max(col - 2, 0);c <= Math.min(col + 2, COLS - 1);++c) {
+				int other = r * COLS + c;
+				if (other == cell || !frontier.get(other)) {
+					continue;
+				}
+				int countB = collectUnknowns(other, unknownsB);
+				int remainingB = remainingMines;
+				if (countB == 0) {
+					continue;
+				}
+
+				/* Split the unknowns into those only A has and those only B has [moved to the front of each array] */
+				int onlyA = partition(unknownsA, countA, unknownsB, countB);
+				int onlyB = partition(unknownsB, countB, unknownsA, countA);
+				if (onlyA == countA) {
+					continue;
+				}
+
+				/* If A needs every cell it alone has to reach its count, those are mines and B's own cells are safe */
+				if (remainingA - remainingB == onlyA && (onlyA | onlyB) != 0) {
+					markAll(unknownsA, onlyA, true);
+					markAll(unknownsB, onlyB, false);
+					enqueue(cell);
+					return;
+				}
+
+				/* And the same the other way around */
+				if (remainingB - remainingA == onlyB && (onlyA | onlyB) != 0) {
+					markAll(unknownsB, onlyB, true);
+					markAll(unknownsA, onlyA, false);
+					enqueue(cell);
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * <h3>Collects the undetermined hidden neighbors of a constraint and how many mines are left among them</h3>
+	 *
+	 * <p>The neighbors are collected in index order, and the remaining mines are left in {@code remainingMines}.</p>
+	 *
+	 * @param cell     : The index of the constraint
+	 * @param unknowns : Receives the undetermined neighbors
+	 *
+	 * @return The number of undetermined neighbors
+	 */
+	private int collectUnknowns(int cell, int[] unknowns) {
+		int row = cell / COLS;
+		int col = cell - row * COLS;
+		int count = 0;
+		remainingMines = engine.getNeighborMines(row, col);
+		for (int r = Math.max(row - 1, 0);r <= Math.min(row + 1, ROWS - 1);++r) {
+			for (int c = Math.max(col - 1, 0);c <= Math.min(col + 1, COLS - 1);++c) {
+				int neighbor = r * COLS + c;
+				if (engine.isRevealed(r, c) || safe.get(neighbor)) {
+					continue;
+				}
+				if (mined.get(neighbor) || (trustFlags && engine.isFlagged(r, c))) {
+					--remainingMines;
+				} else {
+					unknowns[count++] = neighbor;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * <h3>Moves the cells of one set that are not in another to the front of its array</h3>
+	 *
+	 * @param set        : The set to partition
+	 * @param count      : The size of the set
+	 * @param other      : The other set
+	 * @param otherCount : The size of the other set
+	 *
+	 * @return The number of cells only in {@code set}
+	 */
+	private static int partition(int[] set, int count, int[] other, int otherCount) {
+		int only = 0;
+		for (int i = 0;i < count;++i) {
+			boolean shared = false;
+			for (int j = 0;j < otherCount && !shared;++j) {
+				shared = set[i] == other[j];
+			}
+			if (!shared) {
+				int cell = set[i];
+				set[i] = set[only];
+				set[only++] = cell;
+			}
+		}
+		return only;
+	}
+
+	/**
+	 * <h3>Records a deduction for several cells and queues the constraints around them</h3>
+	 *
+	 * @param cells : The cells
+	 * @param count : The number of cells to take from the front of the array
+	 * @param mine  : {@code true} if the cells are mines, {@code false} if they are safe
+	 */
+	private void markAll(int[] cells, int count, boolean mine) {
+		for (int i = 0;i < count;++i) {
+			if (mine) {
+				mined.set(cells[i]);
+			} else {
+				safe.set(cells[i]);
+				safeFloor = Math.min(safeFloor, cells[i]);
+			}
+			++deductions;
+			enqueueNeighbors(cells[i]);
+		}
+	}
+
+	/**
+	 * <h3>Queues every frontier cell around a cell</h3>
+	 *
+	 * @param cell : The index of the cell
+	 */
+	private void enqueueNeighbors(int cell) {
+		int row = cell / COLS;
+		int col = cell - row * COLS;
+		for (int r = Math.max(row - 1, 0);r <= Math.min(row + 1, ROWS - 1);++r) {
+			for (int c = Math.max(col - 1, 0);c <= Math.min(col + 1, COLS - 1);++c) {
+				int neighbor = r * COLS + c;
+				if (neighbor != cell && frontier.get(neighbor)) {
+					enqueue(neighbor);
+				}
+			}
+		}
+	}
+
+	/**
+	 * <h3>Queues a constraint to be checked, unless it is already queued</h3>
+	 *
+	 * @param cell : The index of the constraint
+	 */
+	private void enqueue(int cell) {
+		if (queued.get(cell)) {
+			return;
+		}
+		queued.set(cell);
+		if (queueSize == queue.length) {
+			queue = Arrays.copyOf(queue, queueSize * 2);
+		}
+		queue[queueSize++] = cell;
+	}
+
+}
@@ -0,0 +1,216 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <h1>MoveBatch - A sequence of moves and the cells they changed</h1>
+ *
+ * <p>Moves are added as a type [{@link MoveLog#REVEAL}, {@link MoveLog#FLAG}, {@link MoveLog#UNFLAG} or
+ * {@link MoveLog#CHORD}] and a cell index {@code row * cols + col}, and {@link MinesEngine#applyMoves(MoveBatch)} applies
+ * them all in one call. The batch then holds the number of moves applied, the state of the game and every cell the
+ * moves changed, in order, with the value the player now sees in the layout of {@link MinesSave}: the neighbor count
+ * [9 for a mine] and bit 5 once revealed, bit 4 while flagged, and 0 otherwise.</p>
+ *
+ * <p>Moves and results are kept in primitive arrays that only grow, so a batch reused with {@link #clear()} applies any
+ * number of moves without allocating.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public final class MoveBatch {
+
+	/* The moves [grown on demand] */
+	private byte[] types = new byte[16];
+	private int[] cells = new int[16];
+	private int moveCount = 0;
+
+	/* The cells changed by the moves and their values [grown on demand] */
+	private int[] changedCells = new int[64];
+	private byte[] changedValues = new byte[64];
+	private int changedCount = 0;
+
+	/* The number of moves applied and the state of the game after them */
+	private int applied = 0;
+	private MinesEngine.State state = MinesEngine.State.RUNNING;
+
+	/**
+	 * <h3>Forgets every move and result, keeping the arrays for reuse</h3>
+	 *
+	 * @return This batch
+	 */
+	public MoveBatch clear() {
+		moveCount = 0;
+		clearResult();
+		return this;
+	}
+
+	/**
+	 * <h3>Adds a move</h3>
+	 *
+	 * @param type : {@link MoveLog#REVEAL}, {@link MoveLog#FLAG}, {@link MoveLog#UNFLAG} or {@link MoveLog#CHORD}
+	 * @param cell : The index {@code row * cols + col} of the cell
+	 *
+	 * @return This batch
+	 */
+	public MoveBatch add(byte type, int cell) {
+		if (moveCount == types.length) {
+			types = Arrays.copyOf(types, moveCount * 2);
+			cells = Arrays.copyOf(cells, moveCount * 2);
+		}
+		types[moveCount] = type;
+		cells[moveCount] = cell;
+		++moveCount;
+		return this;
+	}
+
+	/**
+	 * @return The number of moves added
+	 */
+	public int getMoveCount() {
+		return moveCount;
+	}
+
+	/**
+	 * @param i : The position of the move, from {@code 0} to {@code getMoveCount() - 1}
+	 *
+	 * @return The type of the i-th move
+	 */
+	public byte getMoveType(int i) {
+		checkMove(i);
+		return types[i];
+	}
+
+	/**
+	 * @param i : The position of the move, from {@code 0} to {@code getMoveCount() - 1}
+	 *
+	 * @return The cell of the i-th move
+	 */
+	public int getMoveCell(int i) {
+		checkMove(i);
+		return cells[i];
+	}
+
+	/**
+	 * @return The number of moves applied [fewer than were added if one of them ended the game]
+	 */
+	public int getApplied() {
+		return applied;
+	}
+
+	/**
+	 * @return The state of the game after the moves were applied
+	 */
+	public MinesEngine.State getState() {
+		return state;
+	}
+
+	/**
+	 * @return The number of cell changes made by the moves [a cell changed by several moves is listed once per move]
+	 */
+	public int getChangedCount() {
+		return changedCount;
+	}
+
+	/**
+	 * @param i : The position of the change, from {@code 0} to {@code getChangedCount() - 1}
+	 *
+	 * @return The index {@code row * cols + col} of the i-th changed cell
+	 */
+	public int getChangedCell(int i) {
+		checkChange(i);
+		return changedCells[i];
+	}
+
+	/**
+	 * @param i : The position of the change, from {@code 0} to {@code getChangedCount() - 1}
+	 *
+	 * @return The value of the i-th changed cell, as the player sees it after that move
+	 */
+	public int getChangedValue(int i) {
+		checkChange(i);
+		return changedValues[i];
+	}
+
+	/**
+	 * <h3>Writes every change as {@code cell 4 | value 1}, big-endian, in order</h3>
+	 *
+	 * @param out : The buffer to write {@code 5 * getChangedCount()} bytes to
+	 */
+	public void writeChanges(ByteBuffer out) {
+		for (int i = 0;i < changedCount;++i) {
+			out.putInt(changedCells[i]).put(changedValues[i]);
+		}
+	}
+
+	/**
+	 * <h3>Forgets the result of the last time the moves were applied</h3>
+	 */
+	void clearResult() {
+		changedCount = 0;
+		applied = 0;
+		state = MinesEngine.State.RUNNING;
+	}
+
+	/**
+	 * @return The move types, of which the first {@link #getMoveCount()} are in use
+	 */
+	byte[] types() {
+		return types;
+	}
+
+	/**
+	 * @return The move cells, of which the first {@link #getMoveCount()} are in use
+	 */
+	int[] cells() {
+		return cells;
+	}
+
+	/**
+	 * <h3>Records a cell changed by a move</h3>
+	 *
+	 * @param cell  : The index of the cell
+	 * @param value : Its value as the player now sees it
+	 */
+	void recordChange(int cell, int value) {
+		if (changedCount == changedCells.length) {
+			changedCells = Arrays.copyOf(changedCells, changedCount * 2);
+			changedValues = Arrays.copyOf(changedValues, changedCount * 2);
+		}
+		changedCells[changedCount] = cell;
+		changedValues[changedCount] = (byte) value;
+		++changedCount;
+	}
+
+	/**
+	 * <h3>Records how far the moves got</h3>
+	 *
+	 * @param applied : The number of moves applied
+	 * @param state   : The state of the game after them
+	 */
+	void finish(int applied, MinesEngine.State state) {
+		this.applied = applied;
+		this.state = state;
+	}
+
+	/**
+	 * @param i : The position of a move
+	 *
+	 * @throws IndexOutOfBoundsException {@code if i < 0 || i >= getMoveCount()}
+	 */
+	private void checkMove(int i) {
+		if (i < 0 || i >= moveCount) {
+			throw new IndexOutOfBoundsException("MoveBatch - checkMove() : " + i + " lies outside the " + moveCount + " moves");
+		}
+	}
+
+	/**
+	 * @param i : The position of a change
+	 *
+	 * @throws IndexOutOfBoundsException {@code if i < 0 || i >= getChangedCount()}
+	 */
+	private void checkChange(int i) {
+		if (i < 0 || i >= changedCount) {
+			throw new IndexOutOfBoundsException("MoveBatch - checkChange() : " + i + " lies outside the " + changedCount + " changes");
+		}
+	}
+
+}
@@ -0,0 +1,203 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <h1>MoveLog - Append-only binary log of player moves</h1>
+ *
+ * <p>A log file starts with an 8 byte header (magic "MLOG" and the format version) and is followed by records that are
+ * only ever appended. Every record starts with a type byte and the {@link System#nanoTime()} delta since the previous
+ * record:</p>
+ *
+ * <pre>
+ *  GAME    type 0 | delta 8 | rows 4 | cols 4 | mines 4 | seed 8     a new board was dealt
+ *  REVEAL  type 1 | delta 8 | cell 4                                  cell = row * cols + col
+ *  FLAG    type 2 | delta 8 | cell 4
+ *  UNFLAG  type 3 | delta 8 | cell 4
+ *  CHORD   type 4 | delta 8 | cell 4
+ *  FIRST   type 5 | delta 8 | mode 4                                  the first click protection of the board just dealt
+ * </pre>
+ *
+ * <p>A FIRST record follows the GAME record of every board whose first reveal is protected, with the ordinal of its
+ * {@link MinesEngine.FirstClick} mode. Without one the board is played as dealt.</p>
+ *
+ * <p>The version in the header grows with the set of record types: version 1 holds only GAME, REVEAL, FLAG and UNFLAG
+ * records, version 2 adds CHORD and version 3 adds FIRST. Records are only ever appended to a log of the current
+ * version, while {@link MoveReplay} reads every version.</p>
+ *
+ * <p>All values are big-endian. Since boards are dealt from their seed, a GAME record followed by its moves is enough
+ * for {@link MoveReplay} to reproduce the game exactly. Records are gathered in a buffer that is appended to the file
+ * when it fills up, when {@link #flush()} is called (e.g. at the end of every game) and on {@link #close()}.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class MoveLog implements Closeable {
+
+	/* Identifies a log file ["MLOG"] */
+	static final int MAGIC = 0x4D4C4F47;
+
+	/* Version of the file format, and the oldest version that can still be replayed */
+	static final int VERSION = 3;
+	static final int OLDEST_VERSION = 1;
+
+	/* Size of the header in bytes */
+	static final int HEADER_BYTES = 8;
+
+	/* Record types */
+	static final byte GAME		= 0;
+	static final byte REVEAL	= 1;
+	static final byte FLAG		= 2;
+	static final byte UNFLAG	= 3;
+	static final byte CHORD		= 4;
+	static final byte FIRST		= 5;
+
+	/* Size of each kind of record in bytes [a FIRST record is the size of a move] */
+	static final int GAME_BYTES = 1 + 8 + 4 + 4 + 4 + 8;
+	static final int MOVE_BYTES = 1 + 8 + 4;
+
+	/* Size of the buffer records are gathered in */
+	private static final int BUFFER_BYTES = 1 << 16;
+
+	/* The file records are appended to */
+	private final FileChannel channel;
+
+	/* Records not yet appended to the file */
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+	/* The nanoTime of the previous record [0 before the first record] */
+	private long lastNanos = 0;
+
+	/**
+	 * <h3>Opens a log file for appending, writing the header if the file is new or empty</h3>
+	 *
+	 * @param path : The log file
+	 *
+	 * @throws IOException {@code if the file cannot be opened, or exists but is not a log file}
+	 */
+	public MoveLog(Path path) throws IOException {
+
+		/* If the file already holds records, check it is a log file before appending to it */
+		if (Files.exists(path) && Files.size(path) > 0) {
+			try (FileChannel existing = FileChannel.open(path, StandardOpenOption.READ)) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+				existing.read(header, 0);
+				header.flip();
+				if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+					throw new IOException("MoveLog - MoveLog() : " + path + " is not a version " + VERSION + " move log [records can only be appended to a log of the current version]");
+				}
+			}
+		}
+
+		/* Open the file for appending, writing the header if it is new or empty */
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		if (channel.size() == 0) {
+			buffer.putInt(MAGIC).putInt(VERSION);
+			try {
+				flush();
+			} catch (IOException e) {
+				channel.close();
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * @param version : A version of the file format, from {@link #OLDEST_VERSION} to {@link #VERSION}
+	 *
+	 * @return The highest record type a log of that version can hold
+	 */
+	static byte lastRecordType(int version) {
+		switch (version) {
+			case 1:		return UNFLAG;
+			case 2:		return CHORD;
+			default:	return FIRST;
+		}
+	}
+
+	/**
+	 * <h3>Records that a new board was dealt, and how its first reveal is protected</h3>
+	 *
+	 * @param engine : The engine holding the new board
+	 *
+	 * @throws IOException {@code if the buffer had to be appended to the file and that failed}
+	 */
+	public void game(MinesEngine engine) throws IOException {
+		ensureRoom(GAME_BYTES);
+		buffer.put(GAME).putLong(delta()).putInt(engine.getRows()).putInt(engine.getCols()).putInt(engine.getTotalMines()).putLong(engine.getSeed());
+		if (engine.getFirstClick() != MinesEngine.FirstClick.OFF) {
+			ensureRoom(MOVE_BYTES);
+			buffer.put(FIRST).putLong(delta()).putInt(engine.getFirstClick().ordinal());
+		}
+	}
+
+	/**
+	 * <h3>Records a move</h3>
+	 *
+	 * @param type : {@link #REVEAL}, {@link #FLAG}, {@link #UNFLAG} or {@link #CHORD}
+	 * @param cell : The index {@code row * cols + col} of the cell
+	 *
+	 * @throws IOException {@code if the buffer had to be appended to the file and that failed}
+	 */
+	public void move(byte type, int cell) throws IOException {
+		ensureRoom(MOVE_BYTES);
+		buffer.put(type).putLong(delta()).putInt(cell);
+	}
+
+	/**
+	 * <h3>Appends every buffered record to the file</h3>
+	 *
+	 * @throws IOException {@code if the file cannot be written}
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * <h3>Appends every buffered record and closes the file</h3>
+	 *
+	 * @throws IOException {@code if the file cannot be written or closed}
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * <h3>Makes room for a record, appending the buffer to the file if it is too full</h3>
+	 *
+	 * @param bytes : The size of the record
+	 *
+	 * @throws IOException {@code if the file cannot be written}
+	 */
+	private void ensureRoom(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+
+	/**
+	 * <h3>Calculates the time since the previous record</h3>
+	 *
+	 * @return The nanoTime delta since the previous record, or 0 for the first record
+	 */
+	private long delta() {
+		long now = System.nanoTime();
+		long delta = (lastNanos == 0) ? 0 : now - lastNanos;
+		lastNanos = now;
+		return delta;
+	}
+
+}
@@ -0,0 +1,240 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <h1>MoveReplay - Replays move logs against a headless engine</h1>
+ *
+ * <p>Reads a {@link MoveLog} file through a memory-mapped buffer and re-applies every record to a {@link MinesEngine}:
+ * a GAME record deals the logged board from its seed, and the moves that follow are applied to it. There is no view and
+ * no per-move output, and one engine is reused for every game of the same size, so replaying is bound only by the
+ * engine itself. A record cut short at the end of the file is ignored. Logs of every version from
+ * {@link MoveLog#OLDEST_VERSION} on are read, and a record type the log's version does not have is rejected.</p>
+ *
+ * <p>Run with {@code java MoveReplay <log> [repeats] [-v]} to replay a log, optionally several times over, and print the
+ * games and moves per second. {@code -v} prints the board ID and result of every game, for reproducing bug reports.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class MoveReplay {
+
+	/* Whether the board ID and result of every game should be printed */
+	private final boolean verbose;
+
+	/* The engine games are replayed on [replaced only when a game of a different size comes up] */
+	private MinesEngine engine;
+
+	/* Totals over everything replayed */
+	private long games = 0;
+	private long moves = 0;
+	private long won = 0;
+	private long lost = 0;
+
+	/**
+	 * <h3>Constructs a MoveReplay</h3>
+	 *
+	 * @param verbose : Whether the board ID and result of every game should be printed
+	 */
+	public MoveReplay(boolean verbose) {
+		this.verbose = verbose;
+	}
+
+	/**
+	 * <h3>Replays every record of a log file</h3>
+	 *
+	 * @param path : The log file
+	 *
+	 * @throws IOException {@code if the file cannot be read or is not a move log}
+	 */
+	public void replay(Path path) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+			/* Map the whole file and check the header */
+			ByteBuffer log = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (log.remaining() < MoveLog.HEADER_BYTES || log.getInt() != MoveLog.MAGIC) {
+				throw new IOException("MoveReplay - replay() : " + path + " is not a move log");
+			}
+			int version = log.getInt();
+			if (version < MoveLog.OLDEST_VERSION || version > MoveLog.VERSION) {
+				throw new IOException("MoveReplay - replay() : " + path + " is a version " + version + " move log [versions " + MoveLog.OLDEST_VERSION + " to " + MoveLog.VERSION + " can be replayed]");
+			}
+
+			/* Replay the records */
+			try {
+				replay(log, version);
+			} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+				throw new IOException("MoveReplay - replay() : " + path + " holds a malformed record", e);
+			}
+		}
+	}
+
+	/**
+	 * <h3>Replays records from a buffer until it runs out</h3>
+	 *
+	 * @param log     : The records, positioned after the header
+	 * @param version : The version of the log, from {@link MoveLog#OLDEST_VERSION} to {@link MoveLog#VERSION}
+	 *
+	 * @throws IllegalArgumentException {@code if a record has a type the version does not have or describes an invalid board}
+	 */
+	public void replay(ByteBuffer log, int version) {
+
+		/* The highest record type this version of the log can hold */
+		byte lastType = MoveLog.lastRecordType(version);
+
+		/* Whether a game is in progress */
+		boolean playing = false;
+
+		/* Until every record has been replayed */
+		while (log.hasRemaining()) {
+
+			/* If the last record was cut short [e.g. by a crash while it was being appended], stop */
+			byte type = log.get(log.position());
+			if (log.remaining() < ((type == MoveLog.GAME) ? MoveLog.GAME_BYTES : MoveLog.MOVE_BYTES)) {
+				break;
+			}
+
+			/* Read the record type and skip the time delta */
+			log.get();
+			log.getLong();
+			if (type < MoveLog.GAME || type > lastType) {
+				throw new IllegalArgumentException("MoveReplay - replay() : unknown record type " + type + " in a version " + version + " log");
+			}
+
+			switch (type) {
+
+				/* A new board was dealt: finish the previous game and deal this one */
+				case MoveLog.GAME:
+					if (playing) {
+						finishGame();
+					}
+					int rows = log.getInt();
+					int cols = log.getInt();
+					int mines = log.getInt();
+					long seed = log.getLong();
+					if (engine == null || engine.getRows() != rows || engine.getCols() != cols || engine.getTotalMines() != mines) {
+						engine = new MinesEngine(rows, cols, mines, seed);
+					} else {
+						engine.reset(seed);
+					}
+					engine.setFirstClick(MinesEngine.FirstClick.OFF);
+					playing = true;
+					break;
+
+				/* The first reveal of the board just dealt is protected */
+				case MoveLog.FIRST:
+					int mode = log.getInt();
+					if (mode < 0 || mode >= MinesEngine.FirstClick.values().length) {
+						throw new IllegalArgumentException("MoveReplay - replay() : unknown first click mode " + mode);
+					}
+					if (playing) {
+						engine.setFirstClick(MinesEngine.FirstClick.values()[mode]);
+					}
+					break;
+
+				/* A move: apply it to the board */
+				case MoveLog.REVEAL:
+				case MoveLog.FLAG:
+				case MoveLog.UNFLAG:
+				case MoveLog.CHORD:
+					int cell = log.getInt();
+					if (!playing) {
+						break;
+					}
+					int row = cell / engine.getCols();
+					int col = cell - row * engine.getCols();
+					if (type == MoveLog.REVEAL) {
+						engine.reveal(row, col);
+					} else if (type == MoveLog.FLAG) {
+						engine.flag(row, col);
+					} else if (type == MoveLog.UNFLAG) {
+						engine.unflag(row, col);
+					} else {
+						engine.chord(row, col);
+					}
+					++moves;
+					break;
+
+				default:
+					throw new IllegalArgumentException("MoveReplay - replay() : unknown record type " + type);
+			}
+		}
+
+		/* Finish the last game */
+		if (playing) {
+			finishGame();
+		}
+	}
+
+	/**
+	 * @return The number of games replayed
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * @return The number of moves replayed
+	 */
+	public long getMoves() {
+		return moves;
+	}
+
+	/**
+	 * @return The number of replayed games that ended in a win
+	 */
+	public long getWon() {
+		return won;
+	}
+
+	/**
+	 * @return The number of replayed games that ended in a loss
+	 */
+	public long getLost() {
+		return lost;
+	}
+
+	/**
+	 * <h3>Counts the result of the game on the engine</h3>
+	 */
+	private void finishGame() {
+		++games;
+		switch (engine.getState()) {
+			case WON:	++won;	break;
+			case LOST:	++lost;	break;
+			default:			break;
+		}
+		if (verbose) {
+			System.out.println(engine.getBoardId() + " " + engine.getState());
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		/* Parse the arguments */
+		if (args.length < 1) {
+			System.err.println("Usage: java MoveReplay <log> [repeats] [-v]");
+			System.exit(2);
+		}
+		Path path = Paths.get(args[0]);
+		int repeats = (args.length > 1 && !args[1].equals("-v")) ? Integer.parseInt(args[1]) : 1;
+		boolean verbose = args[args.length - 1].equals("-v");
+
+		/* Replay the log the requested number of times */
+		MoveReplay replay = new MoveReplay(verbose);
+		long tInit = System.nanoTime();
+		for (int i = 0;i < repeats;++i) {
+			replay.replay(path);
+		}
+		double seconds = (System.nanoTime() - tInit) / 1e9;
+
+		/* Report the totals and throughput */
+		System.out.printf("%d games (%d won, %d lost), %d moves in %.3f s: %.0f games/s, %.0f moves/s%n",
+				replay.getGames(), replay.getWon(), replay.getLost(), replay.getMoves(), seconds, replay.getGames() / seconds, replay.getMoves() / seconds);
+	}
+
+}
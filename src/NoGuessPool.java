@@ -0,0 +1,479 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h1>NoGuessPool - Boards that can be cleared by logic alone, generated ahead of time</h1>
+ *
+ * <p>A board is no-guess if {@link MinesSolver} can clear it completely starting from a single reveal of its start cell,
+ * the zero cell closest to the center. Such boards are found by rejection sampling: random seeds are dealt and solved
+ * until one clears, which on Expert takes many attempts. To keep that off the game's thread, every pool is refilled by
+ * a shared set of daemon worker threads whenever it drops below {@link #CAPACITY} ready boards, and taking a board is
+ * normally just a queue poll.</p>
+ *
+ * <p>Configurations too dense to have a zero cell anywhere cannot be no-guess and are refused up front. On any other
+ * configuration at most {@link #MAX_CANDIDATES} seeds are tried for one board. If none of them clears, the pool gives up
+ * on the configuration, and {@link #take()} returns {@code null} so the caller can deal plain boards, until
+ * {@link #RETRY_MS} later when the next take tries again.</p>
+ *
+ * <p>Only the pools of the {@link #MAX_POOLS} configurations most recently asked for are kept. An older pool is
+ * forgotten, and whoever still holds it can go on taking boards from it. Every pool keeps its workers' engines and
+ * solvers itself, so a pool nobody holds is collected along with them.</p>
+ *
+ * <p>Each pool counts its hits [a board was ready] and misses [the caller had to wait for one], and the boards and
+ * candidate seeds its workers got through, so the pool size and worker count can be tuned. Hits, misses and generation
+ * times over every pool are also recorded into {@link MinesMetrics}, to be watched through JMX.</p>
+ *
+ * <p>Run with {@code java NoGuessPool [boards]} to time the generation of no-guess boards on the four presets.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class NoGuessPool {
+
+	/* Number of ready boards each pool holds */
+	public static final int CAPACITY = 8;
+
+	/* Number of seeds tried for one board before the configuration is given up on [a preset needs a handful] */
+	public static final int MAX_CANDIDATES = 1000;
+
+	/* How long a pool that gave up waits before trying its configuration again, in milliseconds */
+	public static final long RETRY_MS = 60_000;
+
+	/* Number of configurations whose pools are kept [the four presets and a few custom sizes] */
+	public static final int MAX_POOLS = 8;
+
+	/* How often a caller waiting for a board checks whether the pool gave up, in milliseconds */
+	private static final long WAIT_CHECK_MS = 100;
+
+	/* Metrics shared with the rest of the game */
+	private static final MinesMetrics METRICS = MinesMetrics.get();
+
+	/* Worker threads shared by every pool [one core is left to the game] */
+	private static final ExecutorService WORKERS = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), r -> {
+		Thread thread = new Thread(r, "NoGuessPool worker");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		return thread;
+	});
+
+	/* Pools of the configurations most recently asked for, keyed by "<rows>x<cols>x<mines>", in least recently used order */
+	private static final LinkedHashMap<String, NoGuessPool> POOLS = new LinkedHashMap<>(16, 0.75f, true);
+
+	/* The board configuration */
+	private final int rows;
+	private final int cols;
+	private final int mines;
+
+	/* Boards ready to be taken */
+	private final BlockingQueue<Board> ready = new ArrayBlockingQueue<>(CAPACITY);
+
+	/* Number of boards being generated */
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	/* Whether a board went MAX_CANDIDATES seeds without clearing, after which none are generated until RETRY_MS later */
+	private final AtomicBoolean gaveUp = new AtomicBoolean();
+	private volatile long gaveUpNanos;
+
+	/* Engines and solvers for this configuration not in use by a worker, reused for every candidate */
+	private final ConcurrentLinkedQueue<Generator> idleGenerators = new ConcurrentLinkedQueue<>();
+
+	/* Metrics */
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong boardsGenerated = new AtomicLong();
+	private final AtomicLong candidatesTried = new AtomicLong();
+	private final AtomicLong generationNanos = new AtomicLong();
+
+	/**
+	 * <h3>A no-guess board: the seed it is dealt from and the cell to reveal first</h3>
+	 */
+	public static final class Board {
+
+		/* The seed the board is dealt from */
+		private final long seed;
+
+		/* The index {@code row * cols + col} of the start cell */
+		private final int startCell;
+
+		/**
+		 * <h3>Constructs a Board</h3>
+		 *
+		 * @param seed      : The seed the board is dealt from
+		 * @param startCell : The index of the start cell
+		 */
+		private Board(long seed, int startCell) {
+			this.seed = seed;
+			this.startCell = startCell;
+		}
+
+		/**
+		 * @return The seed the board is dealt from
+		 */
+		public long getSeed() {
+			return seed;
+		}
+
+		/**
+		 * @return The index {@code row * cols + col} of the cell to reveal first
+		 */
+		public int getStartCell() {
+			return startCell;
+		}
+	}
+
+	/**
+	 * <h3>A worker's engine and the solver over it</h3>
+	 */
+	private static final class Generator {
+
+		private final MinesEngine engine;
+		private final MinesSolver solver;
+
+		/**
+		 * <h3>Constructs a Generator</h3>
+		 *
+		 * @param engine : The engine candidates are dealt on
+		 */
+		private Generator(MinesEngine engine) {
+			this.engine = engine;
+			this.solver = new MinesSolver(engine, false);
+		}
+	}
+
+	/**
+	 * <h3>Constructs a NoGuessPool and starts filling it</h3>
+	 *
+	 * @param rows  : The number of rows
+	 * @param cols  : The number of columns
+	 * @param mines : The number of mines
+	 */
+	private NoGuessPool(int rows, int cols, int mines) {
+		this.rows = rows;
+		this.cols = cols;
+		this.mines = mines;
+		refill();
+	}
+
+	/**
+	 * <h3>Returns the pool for a board configuration, creating it and starting to fill it if it is not kept</h3>
+	 *
+	 * @param rows  : The number of rows
+	 * @param cols  : The number of columns
+	 * @param mines : The number of mines
+	 *
+	 * @return The pool
+	 *
+	 * @throws IllegalArgumentException {@code if the configuration does not describe a valid board}
+	 * @throws IllegalArgumentException {@code if !canBeNoGuess(rows, cols, mines)}
+	 */
+	public static NoGuessPool forBoard(int rows, int cols, int mines) {
+
+		/* Exception handling [the configuration is checked before any worker deals it] */
+		MinesEngine.checkDimensions(rows, cols, mines);
+		if (!canBeNoGuess(rows, cols, mines)) throw new IllegalArgumentException("NoGuessPool - forBoard() : canBeNoGuess(rows, cols, mines) returned false [no board of this size has a zero cell to start from]");
+
+		synchronized (POOLS) {
+
+			/* Reuse the pool if it is kept */
+			String key = rows + "x" + cols + "x" + mines;
+			NoGuessPool pool = POOLS.get(key);
+			if (pool != null) {
+				return pool;
+			}
+
+			/* Otherwise create it, and forget the least recently used pool past MAX_POOLS */
+			pool = new NoGuessPool(rows, cols, mines);
+			POOLS.put(key, pool);
+			if (POOLS.size() > MAX_POOLS) {
+				Iterator<NoGuessPool> eldest = POOLS.values().iterator();
+				eldest.next();
+				eldest.remove();
+			}
+			return pool;
+		}
+	}
+
+	/**
+	 * <h3>Checks whether a board configuration leaves room for a zero cell to start a no-guess board from</h3>
+	 *
+	 * <p>A zero cell needs itself and every neighbor to be safe, which is fewest in a corner: 4 cells, or 2 on a board one
+	 * cell wide.</p>
+	 *
+	 * @param rows  : The number of rows
+	 * @param cols  : The number of columns
+	 * @param mines : The number of mines
+	 *
+	 * @return {@code true} if some board of this configuration has a zero cell
+	 */
+	public static boolean canBeNoGuess(int rows, int cols, int mines) {
+		return mines <= (long) rows * cols - (long) Math.min(rows, 2) * Math.min(cols, 2);
+	}
+
+	/**
+	 * <h3>Takes a ready board, waiting for one if the pool is empty</h3>
+	 *
+	 * <p>Waiting can take as long as the workers need to find a board, so this is never to be called on the event
+	 * dispatch thread.</p>
+	 *
+	 * @return A no-guess board, or {@code null} while the pool has given up on its configuration
+	 */
+	public Board take() {
+
+		/* Try the configuration again if the pool gave up long enough ago */
+		retryIfDue();
+
+		/* A ready board is a hit */
+		Board board = ready.poll();
+		if (board != null) {
+			hits.incrementAndGet();
+			METRICS.noGuessTaken(true);
+			refill();
+			return board;
+		}
+
+		/* Otherwise wait for the workers to finish one, unless they have given up */
+		misses.incrementAndGet();
+		METRICS.noGuessTaken(false);
+		refill();
+		boolean interrupted = false;
+		while (board == null && !gaveUp.get()) {
+			try {
+				board = ready.poll(WAIT_CHECK_MS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		refill();
+		return board;
+	}
+
+	/**
+	 * <h3>Starts generating boards again once {@link #RETRY_MS} have passed since the pool gave up</h3>
+	 */
+	private void retryIfDue() {
+		if (gaveUp.get() && System.nanoTime() - gaveUpNanos >= TimeUnit.MILLISECONDS.toNanos(RETRY_MS) && gaveUp.compareAndSet(true, false)) {
+			refill();
+		}
+	}
+
+	/**
+	 * @return The number of boards that were ready when taken
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return The number of boards that had to be waited for
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return The fraction of boards that were ready when taken [0 if none were taken]
+	 */
+	public double getHitRate() {
+		long taken = hits.get() + misses.get();
+		return (taken == 0) ? 0 : (double) hits.get() / taken;
+	}
+
+	/**
+	 * @return The number of no-guess boards generated
+	 */
+	public long getBoardsGenerated() {
+		return boardsGenerated.get();
+	}
+
+	/**
+	 * @return The number of random boards dealt and solved to find them
+	 */
+	public long getCandidatesTried() {
+		return candidatesTried.get();
+	}
+
+	/**
+	 * @return The average worker time spent generating one no-guess board, in milliseconds
+	 */
+	public double getAverageGenerationMS() {
+		long boards = boardsGenerated.get();
+		return (boards == 0) ? 0 : generationNanos.get() / 1e6 / boards;
+	}
+
+	/**
+	 * @return {@code true} while the pool has given up on its configuration [until the first take {@link #RETRY_MS} later]
+	 */
+	public boolean hasGivenUp() {
+		return gaveUp.get();
+	}
+
+	/**
+	 * @return The number of boards ready to be taken
+	 */
+	public int getReady() {
+		return ready.size();
+	}
+
+	/**
+	 * <h3>Starts generating boards until the ready and in-flight boards fill the pool</h3>
+	 */
+	private void refill() {
+		while (!gaveUp.get()) {
+			int current = inFlight.get();
+			if (ready.size() + current >= CAPACITY) {
+				return;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				WORKERS.execute(this::generateOne);
+			}
+		}
+	}
+
+	/**
+	 * <h3>Generates one board on a worker thread and adds it to the pool</h3>
+	 */
+	private void generateOne() {
+		try {
+			long tInit = System.nanoTime();
+			Board board = generate();
+			if (board != null) {
+				long nanos = System.nanoTime() - tInit;
+				generationNanos.addAndGet(nanos);
+				METRICS.noGuessGenerated(nanos);
+				boardsGenerated.incrementAndGet();
+				ready.offer(board);
+			}
+		} finally {
+			inFlight.decrementAndGet();
+		}
+		refill();
+	}
+
+	/**
+	 * <h3>Deals random boards until one can be cleared by logic alone, giving up after {@link #MAX_CANDIDATES}</h3>
+	 *
+	 * @return The no-guess board, or {@code null} if none was found or the pool has given up
+	 */
+	private Board generate() {
+
+		/* Borrow an idle engine and solver for this configuration, or create one */
+		Generator generator = idleGenerators.poll();
+		if (generator == null) {
+			generator = new Generator(new MinesEngine(rows, cols, mines, 0));
+		}
+		MinesEngine engine = generator.engine;
+
+		/* Try seeds until one clears, stopping early if another worker gave up */
+		int candidate = 0;
+		try {
+			for (;candidate < MAX_CANDIDATES && !gaveUp.get();++candidate) {
+				candidatesTried.incrementAndGet();
+				long seed = ThreadLocalRandom.current().nextLong();
+				engine.reset(seed);
+				int start = startCell(engine);
+				if (start >= 0 && isNoGuess(engine, generator.solver, start)) {
+					return new Board(seed, start);
+				}
+			}
+		} finally {
+			idleGenerators.offer(generator);
+		}
+
+		/* If another worker gave up first, leave it at that */
+		if (candidate < MAX_CANDIDATES) {
+			return null;
+		}
+
+		/* None cleared: give up on the configuration until RETRY_MS later */
+		gaveUpNanos = System.nanoTime();
+		if (gaveUp.compareAndSet(false, true)) {
+			System.err.println("NoGuessPool - generate() : no " + rows + "x" + cols + "x" + mines + " board out of " + MAX_CANDIDATES + " cleared without guessing, giving up for " + RETRY_MS + " ms");
+		}
+		return null;
+	}
+
+	/**
+	 * <h3>Finds the zero cell closest to the center of the board</h3>
+	 *
+	 * @param engine : The engine holding the board
+	 *
+	 * @return The index of the cell, or -1 if the board has no zero cell
+	 */
+	static int startCell(MinesEngine engine) {
+		int rows = engine.getRows();
+		int cols = engine.getCols();
+		int best = -1;
+		long bestDistance = Long.MAX_VALUE;
+		for (int row = 0;row < rows;++row) {
+			for (int col = 0;col < cols;++col) {
+				if (engine.getNeighborMines(row, col) == 0) {
+					long dr = 2L * row - (rows - 1);
+					long dc = 2L * col - (cols - 1);
+					long distance = dr * dr + dc * dc;
+					if (distance < bestDistance) {
+						bestDistance = distance;
+						best = row * cols + col;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * <h3>Checks whether the solver clears the board from its start cell without guessing</h3>
+	 *
+	 * @param engine : The engine holding a freshly dealt board
+	 * @param solver : A solver over the engine
+	 * @param start  : The index of the start cell
+	 *
+	 * @return {@code true} if the board was won
+	 */
+	static boolean isNoGuess(MinesEngine engine, MinesSolver solver, int start) {
+		int cols = engine.getCols();
+		solver.rescan();
+		int cell = start;
+		while (engine.reveal(cell / cols, cell % cols) == MinesEngine.State.RUNNING) {
+			solver.update();
+			solver.solve();
+			cell = solver.nextSafeCell();
+			if (cell < 0) {
+				return false;
+			}
+		}
+		return engine.getState() == MinesEngine.State.WON;
+	}
+
+	public static void main(String[] args) {
+
+		/* Parse the arguments */
+		int boards = (args.length > 0) ? Integer.parseInt(args[0]) : 50;
+
+		/* Take boards from every preset's pool as fast as they come */
+		System.out.printf("%-12s %8s %12s %12s %10s%n", "board", "boards", "candidates", "gen ms", "hit rate");
+		for (Difficulty preset : Difficulty.presets()) {
+			NoGuessPool pool = forBoard(preset.getRows(), preset.getCols(), preset.getMines());
+			for (int i = 0;i < boards;++i) {
+				if (pool.take() == null) {
+					break;
+				}
+			}
+			System.out.printf("%-12s %8d %12d %12.2f %9.1f%%%n", preset,
+					pool.getBoardsGenerated(), pool.getCandidatesTried(), pool.getAverageGenerationMS(), 100 * pool.getHitRate());
+		}
+	}
+
+}
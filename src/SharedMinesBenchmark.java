@@ -0,0 +1,339 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h1>SharedMinesBenchmark - Stress test and thread scaling benchmark for {@link SharedMinesEngine}</h1>
+ *
+ * <p>{@code java SharedMinesBenchmark stress [rounds] [threads]} clears random boards with many threads at once. Every
+ * revealer walks all the safe cells in its own random order, so nearly every reveal and flood fill overlaps another,
+ * while other threads flag and unflag cells under them and, on every other board, one thread clicks a mine part way
+ * through. After each board it checks that every safe cell was claimed exactly once [the cells the calls report add up
+ * to the safe cells], that the counters agree with the board, and that the game ended exactly once with the right
+ * result. It stops at the first board that fails.</p>
+ *
+ * <p>{@code java SharedMinesBenchmark scaling [size] [threads]} clears a {@code size x size} board [4000 by default]
+ * with 1, 2, 4, ... threads up to the given number [every core by default]. Each thread reveals the safe cells of its
+ * own band of rows in order, so flood fills cross from band to band. Every thread count clears the same board
+ * {@link #SCALING_RUNS} times, and the best time until the board is won is reported as cells per second and as speedup
+ * over one thread.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class SharedMinesBenchmark {
+
+	/* Number of flag and unflag pairs each flagging thread makes on a stress board */
+	private static final int FLAG_PAIRS = 2000;
+
+	/* Fraction of the cells that are mines on the scaling board */
+	private static final double SCALING_DENSITY = 0.12;
+
+	/* Number of times every thread count clears the scaling board [the best time is kept] */
+	private static final int SCALING_RUNS = 5;
+
+	/**
+	 * <h3>SharedMinesBenchmark is not meant to be instantiated</h3>
+	 */
+	private SharedMinesBenchmark() {
+	}
+
+	/**
+	 * <h3>Clears random boards with many threads at once and checks every one of them</h3>
+	 *
+	 * @param rounds  : The number of boards
+	 * @param threads : The number of revealing threads [as many again flag and unflag]
+	 *
+	 * @return {@code true} if every board passed
+	 *
+	 * @throws InterruptedException {@code if interrupted while waiting for the threads}
+	 */
+	static boolean stress(int rounds, int threads) throws InterruptedException {
+		SplittableRandom random = new SplittableRandom(1);
+		for (int round = 0;round < rounds;++round) {
+
+			/* Deal a random board */
+			int rows = 16 + random.nextInt(240);
+			int cols = 16 + random.nextInt(240);
+			int mines = 1 + random.nextInt(rows * cols / 5);
+			SharedMinesEngine engine = new SharedMinesEngine(rows, cols, mines, random.nextLong());
+			boolean clickMine = (round % 2) == 1;
+
+			/* Start every thread together */
+			CountDownLatch start = new CountDownLatch(1);
+			AtomicLong claimed = new AtomicLong();
+			AtomicLong mineClicks = new AtomicLong();
+			Thread[] workers = new Thread[2 * threads];
+			for (int t = 0;t < workers.length;++t) {
+				SplittableRandom own = random.split();
+				Runnable work;
+				if (t < threads) {
+					work = () -> claimed.addAndGet(revealAll(engine, own));
+				} else if (clickMine && t == threads) {
+					work = () -> mineClicks.addAndGet(clickMine(engine, own));
+				} else {
+					work = () -> flagAndUnflag(engine, own);
+				}
+				workers[t] = new Thread(() -> {
+					awaitQuietly(start);
+					work.run();
+				});
+				workers[t].start();
+			}
+			start.countDown();
+			for (Thread worker : workers) {
+				worker.join();
+			}
+
+			/* Check the outcome */
+			String failure = check(engine, claimed.get(), mineClicks.get());
+			if (failure != null) {
+				System.out.printf("round %d, %dx%d/%d, seed %x : %s%n", round, rows, cols, mines, engine.getSeed(), failure);
+				return false;
+			}
+		}
+		System.out.printf("%d boards cleared by %d revealing and %d flagging threads, all consistent%n", rounds, threads, threads);
+		return true;
+	}
+
+	/**
+	 * <h3>Reveals every safe cell in a random order of this thread's own, passing over the board until the game is over</h3>
+	 *
+	 * @param engine : The board
+	 * @param random : The thread's random stream
+	 *
+	 * @return The number of cells this thread's calls revealed
+	 */
+	private static long revealAll(SharedMinesEngine engine, SplittableRandom random) {
+		int cols = engine.getCols();
+		int[] order = shuffledCells(engine.getRows() * cols, random);
+		long claimed = 0;
+		while (engine.isRunning()) {
+			for (int cell : order) {
+				if (!engine.isMined(cell / cols, cell % cols)) {
+					claimed += engine.reveal(cell / cols, cell % cols);
+				}
+			}
+		}
+		return claimed;
+	}
+
+	/**
+	 * <h3>Flags random hidden cells and takes every flag off again, to race the revealers for cells</h3>
+	 *
+	 * @param engine : The board
+	 * @param random : The thread's random stream
+	 */
+	private static void flagAndUnflag(SharedMinesEngine engine, SplittableRandom random) {
+		for (int i = 0;i < FLAG_PAIRS && engine.isRunning();++i) {
+			int row = random.nextInt(engine.getRows());
+			int col = random.nextInt(engine.getCols());
+			if (engine.flag(row, col)) {
+				Thread.yield();
+				engine.unflag(row, col);
+			}
+		}
+	}
+
+	/**
+	 * <h3>Waits a little, then reveals a random mine</h3>
+	 *
+	 * @param engine : The board
+	 * @param random : The thread's random stream
+	 *
+	 * @return The number of cells the click revealed [1 if it hit the mine while the game was running]
+	 */
+	private static int clickMine(SharedMinesEngine engine, SplittableRandom random) {
+		for (int i = random.nextInt(1000);i > 0;--i) {
+			Thread.yield();
+		}
+		while (true) {
+			int row = random.nextInt(engine.getRows());
+			int col = random.nextInt(engine.getCols());
+			if (engine.isMined(row, col)) {
+				return engine.reveal(row, col);
+			}
+		}
+	}
+
+	/**
+	 * <h3>Checks a board cleared by the stress test</h3>
+	 *
+	 * @param engine     : The board
+	 * @param claimed    : The cells the revealers' calls reported revealing
+	 * @param mineClicks : The cells the mine click reported revealing
+	 *
+	 * @return What is wrong with the board, or {@code null} if nothing is
+	 */
+	private static String check(SharedMinesEngine engine, long claimed, long mineClicks) {
+		int rows = engine.getRows();
+		int cols = engine.getCols();
+		int safeCells = rows * cols - engine.getTotalMines();
+
+		/* Count what is on the board */
+		int revealedSafe = 0;
+		int revealedMines = 0;
+		int flags = 0;
+		for (int row = 0;row < rows;++row) {
+			for (int col = 0;col < cols;++col) {
+				if (engine.isRevealed(row, col)) {
+					if (engine.isMined(row, col)) {
+						++revealedMines;
+					} else {
+						++revealedSafe;
+					}
+				}
+				if (engine.isFlagged(row, col)) {
+					++flags;
+				}
+			}
+		}
+
+		/* Every reveal must have been reported by exactly one call, and the counters must agree with the board */
+		if (claimed != revealedSafe) {
+			return claimed + " cells reported revealed but " + revealedSafe + " safe cells are revealed";
+		}
+		if (mineClicks != revealedMines) {
+			return mineClicks + " mine reveals reported but " + revealedMines + " mines are revealed";
+		}
+		if (engine.getSafeCellsRemaining() != safeCells - revealedSafe) {
+			return "the safe cell counter is " + engine.getSafeCellsRemaining() + " instead of " + (safeCells - revealedSafe);
+		}
+		if (engine.getTotalFlags() != flags) {
+			return "the flag counter is " + engine.getTotalFlags() + " but " + flags + " cells are flagged";
+		}
+
+		/* The game ended once: won with every safe cell revealed, or lost to the one mine clicked [which can come too late to lose a game just won] */
+		switch (engine.getState()) {
+			case WON:
+				return (revealedSafe == safeCells) ? null : "the game was won with " + (safeCells - revealedSafe) + " safe cells hidden";
+			case LOST:
+				return (revealedMines == 1) ? null : "the game was lost with " + revealedMines + " mines revealed";
+			default:
+				return "the game is still running";
+		}
+	}
+
+	/**
+	 * <h3>Clears a large board with more and more threads</h3>
+	 *
+	 * @param size       : The number of rows and columns
+	 * @param maxThreads : The largest number of threads
+	 *
+	 * @throws InterruptedException {@code if interrupted while waiting for the threads}
+	 */
+	static void scaling(int size, int maxThreads) throws InterruptedException {
+		int mines = (int) (SCALING_DENSITY * size * size);
+		System.out.printf("%dx%d board, %d mines%n", size, size, mines);
+		System.out.printf("%8s %12s %16s %10s%n", "threads", "ms", "cells/s", "speedup");
+
+		/* Warm up, then time every thread count on the same board, keeping the best of its runs */
+		clear(new SharedMinesEngine(size, size, mines, 0), Math.max(1, maxThreads));
+		double base = 0;
+		for (int threads = 1;threads <= maxThreads;threads = (threads == maxThreads) ? threads + 1 : Math.min(threads * 2, maxThreads)) {
+			SharedMinesEngine engine = null;
+			long nanos = Long.MAX_VALUE;
+			for (int run = 0;run < SCALING_RUNS;++run) {
+				engine = new SharedMinesEngine(size, size, mines, 1);
+				nanos = Math.min(nanos, clear(engine, threads));
+			}
+			double seconds = nanos / 1e9;
+			if (threads == 1) {
+				base = seconds;
+			}
+			System.out.printf("%8d %12.1f %16.0f %9.2fx%s%n", threads, nanos / 1e6, (size * size - mines) / seconds, base / seconds,
+					(engine.getState() == MinesEngine.State.WON) ? "" : "  [not won: " + engine.getState() + "]");
+		}
+	}
+
+	/**
+	 * <h3>Clears a board with a number of threads, each revealing the safe cells of its own band of rows</h3>
+	 *
+	 * @param engine  : The board
+	 * @param threads : The number of threads
+	 *
+	 * @return The time until every thread finished, in nanoseconds
+	 *
+	 * @throws InterruptedException {@code if interrupted while waiting for the threads}
+	 */
+	private static long clear(SharedMinesEngine engine, int threads) throws InterruptedException {
+		int rows = engine.getRows();
+		int cols = engine.getCols();
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		for (int t = 0;t < threads;++t) {
+			int rowMin = (int) ((long) rows * t / threads);
+			int rowMax = (int) ((long) rows * (t + 1) / threads);
+			workers[t] = new Thread(() -> {
+				awaitQuietly(start);
+				for (int row = rowMin;row < rowMax && engine.isRunning();++row) {
+					for (int col = 0;col < cols;++col) {
+						if (!engine.isMined(row, col)) {
+							engine.reveal(row, col);
+						}
+					}
+				}
+			});
+			workers[t].start();
+		}
+		long tInit = System.nanoTime();
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		return System.nanoTime() - tInit;
+	}
+
+	/**
+	 * @param cells  : The number of cells
+	 * @param random : The source of randomness
+	 *
+	 * @return Every cell index in a random order
+	 */
+	private static int[] shuffledCells(int cells, SplittableRandom random) {
+		int[] order = new int[cells];
+		for (int i = 0;i < cells;++i) {
+			int j = random.nextInt(i + 1);
+			order[i] = order[j];
+			order[j] = i;
+		}
+		return order;
+	}
+
+	/**
+	 * <h3>Waits for a latch, keeping the thread's interrupt status if interrupted</h3>
+	 *
+	 * @param latch : The latch
+	 */
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+
+		/* Parse the arguments */
+		String mode = (args.length > 0) ? args[0] : "stress";
+		int cores = Runtime.getRuntime().availableProcessors();
+
+		/* Run the requested mode */
+		if (mode.equals("stress")) {
+			int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+			int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Math.max(4, cores);
+			if (!stress(rounds, threads)) {
+				System.exit(1);
+			}
+		} else if (mode.equals("scaling")) {
+			int size = (args.length > 1) ? Integer.parseInt(args[1]) : 4000;
+			int threads = (args.length > 2) ? Integer.parseInt(args[2]) : cores;
+			scaling(size, threads);
+		} else {
+			System.err.println("Usage: java SharedMinesBenchmark stress [rounds] [threads] | scaling [size] [threads]");
+			System.exit(2);
+		}
+	}
+
+}
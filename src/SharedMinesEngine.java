@@ -0,0 +1,421 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h1>SharedMinesEngine - One board cleared by many threads at once</h1>
+ *
+ * <p>A cooperative version of {@link MinesEngine}: any number of players or bot threads may reveal, flag and unflag
+ * cells of the same board concurrently, without a lock. Every cell is packed into one byte in the layout of
+ * {@link MinesEngine#writeCells(ByteBuffer)} [the neighbor count in the low bits, then the flagged and revealed bits], and
+ * every change to a cell is a compare-and-set of its byte through a {@link VarHandle}.</p>
+ *
+ * <p>A cell is revealed by whichever thread's compare-and-set sets its revealed bit, so when flood fills overlap every
+ * cell is claimed exactly once, and only the thread that claimed a cell with no neighboring mines spreads from it. A
+ * flag and a reveal racing for the same cell also resolve by compare-and-set: the cell ends up either flagged or
+ * revealed, never both.</p>
+ *
+ * <p>Each move subtracts the cells it claimed from the safe cell counter in one atomic step, so the counter reaches zero
+ * exactly once, in the move that claimed the last safe cell, which then declares the game won. Revealing a mine declares
+ * it lost. Both only succeed while the game is running, so a game can end only once, and moves that were already under
+ * way finish their flood fills but cannot change the outcome.</p>
+ *
+ * <p>The board is dealt exactly as {@link MinesEngine} deals it, so the same seed gives the same board in both. It is
+ * dealt straight into the packed cells, so a board never needs more than its one byte per cell.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public class SharedMinesEngine {
+
+	/* Atomic access to the bytes of the cell array */
+	private static final VarHandle CELL = MethodHandles.arrayElementVarHandle(byte[].class);
+
+	/* States of the game, as stored in state */
+	private static final int RUNNING	= 0;
+	private static final int WON		= 1;
+	private static final int LOST		= 2;
+
+	/* Total number of rows and columns */
+	private final int ROWS;
+	private final int COLS;
+
+	/* Total number of cells */
+	private final int CELLS;
+
+	/* Total number of mines */
+	private final int TOTAL_MINES;
+
+	/* Every cell, packed as MinesEngine.CELL_COUNT | CELL_FLAGGED | CELL_REVEALED [only changed by compare-and-set] */
+	private final byte[] cells;
+
+	/* Number of non-mine cells that have not been revealed yet */
+	private final AtomicInteger safeCellsRemaining;
+
+	/* Total number of flags placed */
+	private final AtomicInteger totalFlags = new AtomicInteger();
+
+	/* The state of the game, RUNNING, WON or LOST */
+	private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+	/* The seed the board was dealt from */
+	private final long seed;
+
+	/**
+	 * <h3>Constructs a SharedMinesEngine holding the board of the given seed</h3>
+	 *
+	 * @param rows  : total number of rows
+	 * @param cols  : total number of columns
+	 * @param mines : total number of mines
+	 * @param seed  : the seed to deal the board from
+	 *
+	 * @throws IllegalArgumentException {@code if rows < 1 || cols < 1 || mines < 1}
+	 * @throws IllegalArgumentException {@code if (rows * cols) > Integer.MAX_VALUE}
+	 * @throws IllegalArgumentException {@code if mines > (rows * cols)}
+	 */
+	public SharedMinesEngine(int rows, int cols, int mines, long seed) {
+
+		/* Exception handling [before anything is sized from the dimensions] */
+		MinesEngine.checkDimensions(rows, cols, mines);
+
+		/* Store row, column, and total mine values */
+		ROWS = rows;
+		COLS = cols;
+		CELLS = rows * cols;
+		TOTAL_MINES = mines;
+		this.seed = seed;
+
+		/* Deal the board into the packed cells */
+		cells = new byte[CELLS];
+		placeMines(new SplittableRandom(seed));
+		countAllNeighborMines();
+		safeCellsRemaining = new AtomicInteger(CELLS - TOTAL_MINES);
+	}
+
+	/**
+	 * <h3>Places the mines with the same draws as {@link MinesEngine}, so the same seed mines the same cells</h3>
+	 *
+	 * @param random : The source of randomness to place them with
+	 */
+	private void placeMines(SplittableRandom random) {
+
+		/* Floyd's sampling over cell indices, with the cells themselves as the set of chosen cells */
+		for (int last = CELLS - TOTAL_MINES;last < CELLS;++last) {
+			int cell = random.nextInt(last + 1);
+			cells[(cells[cell] == MinesEngine.MINE) ? last : cell] = MinesEngine.MINE;
+		}
+	}
+
+	/**
+	 * <h3>Counts the neighboring mines of every safe cell, in one pass stamping +1 around every mine</h3>
+	 */
+	private void countAllNeighborMines() {
+		for (int row = 0;row < ROWS;++row) {
+			for (int col = 0;col < COLS;++col) {
+				if (cells[row * COLS + col] != MinesEngine.MINE) {
+					continue;
+				}
+				int rowMin = Math.max(row - 1, 0);
+				int rowMax = Math.min(row + 1, ROWS - 1);
+				int colMin = Math.max(col - 1, 0);
+				int colMax = Math.min(col + 1, COLS - 1);
+				for (int nr = rowMin;nr <= rowMax;++nr) {
+					for (int nc = colMin;nc <= colMax;++nc) {
+						int neighbor = nr * COLS + nc;
+						if (cells[neighbor] != MinesEngine.MINE) {
+							++cells[neighbor];
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * <h3>Reveals the specified cell, flood filling if it has no neighboring mines</h3>
+	 *
+	 * <p>Does nothing if the game is not running, or if the cell is flagged or already revealed. Safe to call from any
+	 * thread.</p>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return The number of cells this call revealed
+	 */
+	public int reveal(int row, int col) {
+
+		/* Exception handling */
+		checkBounds(row, col);
+
+		/* If the game is over, or another move got to the cell first, do nothing and return */
+		int cell = row * COLS + col;
+		if (state.get() != RUNNING || !claim(cell)) {
+			return 0;
+		}
+
+		/* If the cell contains a mine, end the game */
+		int count = cells[cell] & MinesEngine.CELL_COUNT;
+		if (count == MinesEngine.MINE) {
+			state.compareAndSet(RUNNING, LOST);
+			return 1;
+		}
+
+		/* Spread from a cell with no neighboring mines */
+		int revealed = (count == 0) ? floodFill(cell) : 1;
+
+		/* Count the claimed cells off in one step, the move that claims the last safe cell wins the game */
+		if (safeCellsRemaining.addAndGet(-revealed) == 0) {
+			state.compareAndSet(RUNNING, WON);
+		}
+		return revealed;
+	}
+
+	/**
+	 * <h3>Places a flag at the specified cell if the cell is unrevealed and doesn't already contain a flag</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if this call placed the flag, {@code false} otherwise
+	 */
+	public boolean flag(int row, int col) {
+
+		/* Exception handling */
+		checkBounds(row, col);
+
+		/* Set the flagged bit, unless the game is over or the cell is revealed or flagged */
+		int cell = row * COLS + col;
+		while (state.get() == RUNNING) {
+			byte value = (byte) CELL.getVolatile(cells, cell);
+			if ((value & (MinesEngine.CELL_FLAGGED | MinesEngine.CELL_REVEALED)) != 0) {
+				return false;
+			}
+			if (CELL.compareAndSet(cells, cell, value, (byte) (value | MinesEngine.CELL_FLAGGED))) {
+				totalFlags.incrementAndGet();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * <h3>Removes a flag from the specified cell if the cell contains a flag</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if this call removed the flag, {@code false} otherwise
+	 */
+	public boolean unflag(int row, int col) {
+
+		/* Exception handling */
+		checkBounds(row, col);
+
+		/* Clear the flagged bit, unless the game is over or the cell is not flagged */
+		int cell = row * COLS + col;
+		while (state.get() == RUNNING) {
+			byte value = (byte) CELL.getVolatile(cells, cell);
+			if ((value & MinesEngine.CELL_FLAGGED) == 0) {
+				return false;
+			}
+			if (CELL.compareAndSet(cells, cell, value, (byte) (value & ~MinesEngine.CELL_FLAGGED))) {
+				totalFlags.decrementAndGet();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The current state of the game
+	 */
+	public MinesEngine.State getState() {
+		switch (state.get()) {
+			case WON:	return MinesEngine.State.WON;
+			case LOST:	return MinesEngine.State.LOST;
+			default:	return MinesEngine.State.RUNNING;
+		}
+	}
+
+	/**
+	 * @return {@code true} if the game is still in progress, {@code false} otherwise
+	 */
+	public boolean isRunning() {
+		return state.get() == RUNNING;
+	}
+
+	/**
+	 * @return The total number of rows
+	 */
+	public int getRows() {
+		return ROWS;
+	}
+
+	/**
+	 * @return The total number of columns
+	 */
+	public int getCols() {
+		return COLS;
+	}
+
+	/**
+	 * @return The total number of mines
+	 */
+	public int getTotalMines() {
+		return TOTAL_MINES;
+	}
+
+	/**
+	 * @return The seed the board was dealt from
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return The total number of flags placed
+	 */
+	public int getTotalFlags() {
+		return totalFlags.get();
+	}
+
+	/**
+	 * @return The number of non-mine cells that have not been revealed yet
+	 */
+	public int getSafeCellsRemaining() {
+		return safeCellsRemaining.get();
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if the cell contains a mine, {@code false} otherwise
+	 */
+	public boolean isMined(int row, int col) {
+		checkBounds(row, col);
+		return (cells[row * COLS + col] & MinesEngine.CELL_COUNT) == MinesEngine.MINE;
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if the cell contains a flag, {@code false} otherwise
+	 */
+	public boolean isFlagged(int row, int col) {
+		checkBounds(row, col);
+		return ((byte) CELL.getVolatile(cells, row * COLS + col) & MinesEngine.CELL_FLAGGED) != 0;
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return {@code true} if the cell has been revealed, {@code false} otherwise
+	 */
+	public boolean isRevealed(int row, int col) {
+		checkBounds(row, col);
+		return ((byte) CELL.getVolatile(cells, row * COLS + col) & MinesEngine.CELL_REVEALED) != 0;
+	}
+
+	/**
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @return The number of neighboring mines of the cell, or {@link MinesEngine#MINE} if the cell is a mine
+	 */
+	public int getNeighborMines(int row, int col) {
+		checkBounds(row, col);
+		return cells[row * COLS + col] & MinesEngine.CELL_COUNT;
+	}
+
+	/**
+	 * <h3>Claims a cell by setting its revealed bit</h3>
+	 *
+	 * @param cell : The index of the cell
+	 *
+	 * @return {@code true} if this call revealed the cell, {@code false} if it is flagged or was already revealed
+	 */
+	private boolean claim(int cell) {
+		while (true) {
+			byte value = (byte) CELL.getVolatile(cells, cell);
+			if ((value & (MinesEngine.CELL_FLAGGED | MinesEngine.CELL_REVEALED)) != 0) {
+				return false;
+			}
+			if (CELL.compareAndSet(cells, cell, value, (byte) (value | MinesEngine.CELL_REVEALED))) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * <h3>Performs the flood fill algorithm from a claimed cell with no neighboring mines</h3>
+	 *
+	 * <p>Uses a stack of this call's own, and only pushes the cells this call claims, so concurrent fills over the same
+	 * area split it between them without either revealing a cell twice.</p>
+	 *
+	 * @param start : The index of the claimed starting cell
+	 *
+	 * @return The number of cells this fill claimed, the starting cell included
+	 */
+	private int floodFill(int start) {
+
+		/* Push the starting cell */
+		int[] stack = new int[64];
+		int size = 0;
+		stack[size++] = start;
+		int revealed = 1;
+
+		/* Until every claimed cell with no neighboring mines has had its neighbors claimed */
+		while (size > 0) {
+
+			/* Pop the next cell, only cells with no neighboring mines spread further */
+			int cell = stack[--size];
+			if ((cells[cell] & MinesEngine.CELL_COUNT) != 0) {
+				continue;
+			}
+
+			/* Determine the bounds of the 3x3 neighborhood, clipped to the board */
+			int r = cell / COLS;
+			int c = cell - r * COLS;
+			int rowMin = Math.max(r - 1, 0);
+			int rowMax = Math.min(r + 1, ROWS - 1);
+			int colMin = Math.max(c - 1, 0);
+			int colMax = Math.min(c + 1, COLS - 1);
+
+			/* Claim every neighbor no other move has claimed or flagged, and push it [none of them is a mine] */
+			for (int nr = rowMin;nr <= rowMax;++nr) {
+				for (int nc = colMin;nc <= colMax;++nc) {
+					int neighbor = nr * COLS + nc;
+					if (claim(neighbor)) {
+						++revealed;
+						if (size == stack.length) {
+							stack = Arrays.copyOf(stack, Math.min(size * 2, CELLS));
+						}
+						stack[size++] = neighbor;
+					}
+				}
+			}
+		}
+		return revealed;
+	}
+
+	/**
+	 * <h3>Checks that the given coordinates lie on the board</h3>
+	 *
+	 * @param row : The row coordinate of the cell
+	 * @param col : The column coordinate of the cell
+	 *
+	 * @throws IndexOutOfBoundsException {@code if row or col lies outside the board}
+	 */
+	private void checkBounds(int row, int col) {
+		if (row < 0 || row >= ROWS || col < 0 || col >= COLS) {
+			throw new IndexOutOfBoundsException("SharedMinesEngine - checkBounds() : (" + row + ", " + col + ") lies outside the " + ROWS + "x" + COLS + " board");
+		}
+	}
+
+}
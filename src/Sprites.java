@@ -0,0 +1,194 @@
+import javax.swing.ImageIcon;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.MediaTracker;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * <h1>Sprites - The game's images, loaded once and converted for fast drawing</h1>
+ *
+ * <p>Every board tile lives in a single atlas, {@code img/tiles.png}, a row of {@link #TILE_SIZE_PX} square tiles in
+ * the order of {@link Tile}. The atlas is read the first time a tile is asked for, cut into one image per tile and
+ * copied into images compatible with the screen's pixel format, so drawing a tile never has to convert pixels. The
+ * tile size is a constant, so laying out a board never waits on, or depends on, an image loading.</p>
+ *
+ * <p>Images are looked up on the classpath under {@code /img/} first, and in the {@code img} directory of the working
+ * directory after that, so the game runs both from a jar and from the project directory on any platform.</p>
+ *
+ * @version 0.0.0.0
+ * @author Avery Johnson
+ */
+public final class Sprites {
+
+	/* Width and height of a tile in pixels */
+	public static final int TILE_SIZE_PX = 24;
+
+	/* Directory images are kept in, on the classpath and in the working directory */
+	private static final String IMAGE_DIRECTORY = "img";
+
+	/* Name of the tile atlas */
+	private static final String ATLAS = "tiles.png";
+
+	/**
+	 * <h3>The tiles of the atlas, in atlas order</h3>
+	 */
+	public enum Tile {
+		HI, HI_RED, HI_GREEN, LO, LO_RED, LO_GREEN,
+		FLAG, LO_MINE, HI_MINE, CROWN,
+		ONE, TWO, THREE, FOUR, FIVE, SIX, SEVEN, EIGHT
+	}
+
+	/**
+	 * <h3>Holds the tiles, so the atlas is only read when the first tile is asked for</h3>
+	 */
+	private static final class Atlas {
+		private static final Image[] TILES = slice(load(ATLAS));
+	}
+
+	/**
+	 * <h3>Sprites is not meant to be instantiated</h3>
+	 */
+	private Sprites() {
+	}
+
+	/**
+	 * @param tile : The tile
+	 *
+	 * @return The tile's image
+	 */
+	public static Image tile(Tile tile) {
+		return Atlas.TILES[tile.ordinal()];
+	}
+
+	/**
+	 * @param neighborMines : A neighbor count from 1 to 8
+	 *
+	 * @return The image of the number
+	 */
+	public static Image number(int neighborMines) {
+		return Atlas.TILES[Tile.ONE.ordinal() + neighborMines - 1];
+	}
+
+	/**
+	 * <h3>Loads an image and copies it into the screen's pixel format</h3>
+	 *
+	 * @param name : The file name of the image within the image directory
+	 *
+	 * @return The image
+	 *
+	 * @throws UncheckedIOException {@code if the image cannot be found or decoded}
+	 */
+	public static BufferedImage load(String name) {
+		try {
+			return toCompatible(read(name));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Sprites - load() : " + IMAGE_DIRECTORY + "/" + name + " could not be loaded", e);
+		}
+	}
+
+	/**
+	 * <h3>Decodes an image from the classpath, or from the working directory if it is not on the classpath</h3>
+	 *
+	 * @param name : The file name of the image within the image directory
+	 *
+	 * @return The decoded image
+	 *
+	 * @throws IOException {@code if the image is in neither place or cannot be decoded}
+	 */
+	private static Image read(String name) throws IOException {
+
+		/* Try the classpath */
+		URL url = Sprites.class.getResource("/" + IMAGE_DIRECTORY + "/" + name);
+		if (url != null) {
+			return decode(url, name);
+		}
+
+		/* Then the working directory */
+		Path path = Paths.get(IMAGE_DIRECTORY, name);
+		if (Files.exists(path)) {
+			return decode(path.toUri().toURL(), name);
+		}
+		throw new IOException("Sprites - read() : " + name + " is neither on the classpath nor in " + path.toAbsolutePath().getParent());
+	}
+
+	/**
+	 * <h3>Decodes an image, waiting until it is complete</h3>
+	 *
+	 * <p>Uses the toolkit's decoder through {@link ImageIcon} rather than ImageIO, whose start up costs more than decoding
+	 * every image the game has.</p>
+	 *
+	 * @param url  : Where the image is
+	 * @param name : The file name of the image, for error messages
+	 *
+	 * @return The decoded image
+	 *
+	 * @throws IOException {@code if the image cannot be read or decoded}
+	 */
+	private static Image decode(URL url, String name) throws IOException {
+		ImageIcon icon = new ImageIcon(url);
+		if (icon.getImageLoadStatus() != MediaTracker.COMPLETE) {
+			throw new IOException("Sprites - decode() : " + name + " could not be decoded");
+		}
+		return icon.getImage();
+	}
+
+	/**
+	 * <h3>Cuts the atlas into one image per tile</h3>
+	 *
+	 * @param atlas : The atlas
+	 *
+	 * @return The tiles in atlas order
+	 *
+	 * @throws IllegalStateException {@code if the atlas does not hold a row of every tile}
+	 */
+	private static Image[] slice(BufferedImage atlas) {
+
+		/* Exception handling */
+		int tiles = Tile.values().length;
+		if (atlas.getWidth() != tiles * TILE_SIZE_PX || atlas.getHeight() != TILE_SIZE_PX) {
+			throw new IllegalStateException("Sprites - slice() : " + ATLAS + " is " + atlas.getWidth() + "x" + atlas.getHeight() + " instead of a row of " + tiles + " " + TILE_SIZE_PX + " px tiles");
+		}
+
+		/* Copy every tile into an image of its own [a subimage shares the atlas raster and would be drawn from it] */
+		Image[] images = new Image[tiles];
+		for (int i = 0;i < tiles;++i) {
+			images[i] = toCompatible(atlas.getSubimage(i * TILE_SIZE_PX, 0, TILE_SIZE_PX, TILE_SIZE_PX));
+		}
+		return images;
+	}
+
+	/**
+	 * <h3>Copies an image into one with the screen's pixel format</h3>
+	 *
+	 * <p>Without a screen the image is copied into a plain ARGB image instead.</p>
+	 *
+	 * @param image : The fully loaded image
+	 *
+	 * @return The copy
+	 */
+	private static BufferedImage toCompatible(Image image) {
+		int width = image.getWidth(null);
+		int height = image.getHeight(null);
+		BufferedImage copy;
+		if (GraphicsEnvironment.isHeadless()) {
+			copy = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		} else {
+			GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+			copy = configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+		}
+		Graphics2D g = copy.createGraphics();
+		g.drawImage(image, 0, 0, null);
+		g.dispose();
+		return copy;
+	}
+
+}